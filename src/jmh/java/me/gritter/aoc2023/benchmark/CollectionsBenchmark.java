@@ -0,0 +1,183 @@
+package me.gritter.aoc2023.benchmark;
+
+import me.gritter.aoc2023.collections.IntArrayDeque;
+import me.gritter.aoc2023.collections.IntArrayList;
+import me.gritter.aoc2023.collections.IntHashSet;
+import me.gritter.aoc2023.collections.LongHashMap;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the primitive collections with their boxed JDK counterparts, for the access patterns of the solutions:
+ * set membership (day 4), map lookups (day 5), appending and iterating (day 9) and queueing (day 4). Run with the GC
+ * profiler to also see the allocations saved by not boxing, e.g.:
+ * <pre>
+ *   mvn -P benchmark package -DskipTests
+ *   java -jar target/benchmarks.jar CollectionsBenchmark -p size=100,100000 -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionsBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int size;
+
+    private int[] values;
+    private long[] keys;
+
+    private IntHashSet intHashSet;
+    private Set<Integer> hashSet;
+
+    private LongHashMap longHashMap;
+    private Map<Long, Long> hashMap;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(2023);
+        values = random.ints(size, 0, size * 2).toArray();
+        keys = random.longs(size).toArray();
+
+        intHashSet = new IntHashSet();
+        hashSet = new HashSet<>();
+        for (int value : values) {
+            intHashSet.add(value);
+            hashSet.add(value);
+        }
+
+        longHashMap = new LongHashMap();
+        hashMap = new HashMap<>();
+        for (long key : keys) {
+            longHashMap.put(key, key >>> 1);
+            hashMap.put(key, key >>> 1);
+        }
+    }
+
+    @Benchmark
+    public int intHashSetContains() {
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            if (intHashSet.contains(i)) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    @Benchmark
+    public int jdkHashSetContains() {
+        int found = 0;
+        for (int i = 0; i < size; i++) {
+            if (hashSet.contains(i)) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    @Benchmark
+    public IntHashSet intHashSetAdd() {
+        IntHashSet set = new IntHashSet();
+        for (int value : values) {
+            set.add(value);
+        }
+
+        return set;
+    }
+
+    @Benchmark
+    public Set<Integer> jdkHashSetAdd() {
+        Set<Integer> set = new HashSet<>();
+        for (int value : values) {
+            set.add(value);
+        }
+
+        return set;
+    }
+
+    @Benchmark
+    public long longHashMapGet() {
+        long sum = 0;
+        for (long key : keys) {
+            sum += longHashMap.get(key, 0);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long jdkHashMapGet() {
+        long sum = 0;
+        for (long key : keys) {
+            sum += hashMap.get(key);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long intArrayListAddAndSum() {
+        IntArrayList list = new IntArrayList();
+        for (int value : values) {
+            list.add(value);
+        }
+
+        long sum = 0;
+        for (int i = 0; i < list.size(); i++) {
+            sum += list.get(i);
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long jdkArrayListAddAndSum() {
+        List<Integer> list = new ArrayList<>();
+        for (int value : values) {
+            list.add(value);
+        }
+
+        long sum = 0;
+        for (int value : list) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long intArrayDequeQueue() {
+        IntArrayDeque deque = new IntArrayDeque();
+        long sum = 0;
+        for (int value : values) {
+            deque.addLast(value);
+            if (deque.size() > 16) {
+                sum += deque.pollFirst();
+            }
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public long jdkArrayDequeQueue() {
+        Deque<Integer> deque = new ArrayDeque<>();
+        long sum = 0;
+        for (int value : values) {
+            deque.addLast(value);
+            if (deque.size() > 16) {
+                sum += deque.pollFirst();
+            }
+        }
+
+        return sum;
+    }
+}
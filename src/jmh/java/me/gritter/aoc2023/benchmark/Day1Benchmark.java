@@ -0,0 +1,70 @@
+package me.gritter.aoc2023.benchmark;
+
+import me.gritter.aoc2023.Day1;
+import me.gritter.aoc2023.DigitMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the strategies of day 1 for finding the first and last digit on a line. The lines are random letters with
+ * a digit near both ends, so the forward scan pays for the length of the line and the bidirectional scan doesn't, e.g.:
+ * <pre>
+ *   mvn -P benchmark package -DskipTests
+ *   java -jar target/benchmarks.jar Day1Benchmark -p lineLength=10,10000
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Day1Benchmark {
+
+    private static final String[] DIGIT_NAMES = {"one", "two", "three", "four", "five", "six", "seven", "eight", "nine"};
+
+    @Param({"FORWARD", "BIDIRECTIONAL"})
+    public Day1.Strategy strategy;
+
+    @Param({"1", "2"})
+    public int star;
+
+    @Param({"10", "100", "10000"})
+    public int lineLength;
+
+    @Param({"1000"})
+    public int lines;
+
+    private String[] input;
+    private DigitMatcher matcher;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(2023);
+        input = new String[lines];
+        for (int i = 0; i < lines; i++) {
+            StringBuilder line = new StringBuilder();
+            line.append((char) ('1' + random.nextInt(9)));
+            line.append(DIGIT_NAMES[random.nextInt(DIGIT_NAMES.length)]);
+            while (line.length() < lineLength) {
+                line.append((char) ('a' + random.nextInt(26)));
+            }
+            line.append(DIGIT_NAMES[random.nextInt(DIGIT_NAMES.length)]);
+            line.append((char) ('1' + random.nextInt(9)));
+            input[i] = line.toString();
+        }
+
+        matcher = star == 1 ? DigitMatcher.DIGITS : DigitMatcher.DIGITS_AND_WORDS;
+    }
+
+    @Benchmark
+    public long sumCalibrationValues() {
+        long sum = 0;
+        for (String line : input) {
+            sum += strategy.calibrationValue(line, matcher);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,73 @@
+package me.gritter.aoc2023.benchmark;
+
+import me.gritter.aoc2023.ParseCache;
+import me.gritter.aoc2023.Solution;
+import me.gritter.aoc2023.Solutions;
+import me.gritter.aoc2023.generator.Generators;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks every star against generated inputs of increasing size, see the generators for what the size means for
+ * each day. Run with the GC profiler to also measure the allocations per solve, and write the results as CSV to plot
+ * them against the size, e.g.:
+ * <pre>
+ *   mvn -P benchmark package -DskipTests
+ *   java -jar target/benchmarks.jar ScalingBenchmark -p day=16,17 -p size=100,1000,5000 -prof gc -rf csv
+ * </pre>
+ * Day 6 is left out by default, as its star 2 doesn't finish for anything but small inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScalingBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16", "17"})
+    public int day;
+
+    @Param({"1", "2"})
+    public int star;
+
+    @Param({"50", "100", "200"})
+    public int size;
+
+    @Param({"2023"})
+    public long seed;
+
+    private Solution solution;
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        solution = Solutions.byDay(day);
+        file = Files.createTempFile("day" + day + "-" + size + "-", ".txt");
+        Generators.generate(day, size, seed, file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Every invocation parses its input, rather than measuring a hit of the parse cache.
+     */
+    @Setup(Level.Invocation)
+    public void clearParseCache() {
+        ParseCache.shared().clear();
+    }
+
+    @Benchmark
+    public long solve() {
+        return star == 1
+                ? solution.solution_star1(file.toString())
+                : solution.solution_star2(file.toString());
+    }
+}
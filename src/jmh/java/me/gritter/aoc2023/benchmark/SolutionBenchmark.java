@@ -0,0 +1,70 @@
+package me.gritter.aoc2023.benchmark;
+
+import me.gritter.aoc2023.ParseCache;
+import me.gritter.aoc2023.Solution;
+import me.gritter.aoc2023.Solutions;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks every star of every day against its bundled puzzle input.
+ * <p>
+ * {@link #steadyState()} measures a warmed up JVM, {@link #coldStart()} measures the very first invocation in a
+ * fresh fork. Days and stars can be selected using JMH parameters, e.g.:
+ * <pre>
+ *   mvn -P benchmark package -DskipTests
+ *   java -jar target/benchmarks.jar SolutionBenchmark -p day=5,12,17 -p star=2
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SolutionBenchmark {
+
+    @Param({"1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11", "12", "13", "14", "15", "16", "17"})
+    public int day;
+
+    @Param({"1", "2"})
+    public int star;
+
+    private Solution solution;
+    private String file;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        solution = Solutions.byDay(day);
+        file = Solutions.puzzleFile(day);
+    }
+
+    /**
+     * Every invocation parses its input, rather than measuring a hit of the parse cache.
+     */
+    @Setup(Level.Invocation)
+    public void clearParseCache() {
+        ParseCache.shared().clear();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+    @Warmup(iterations = 5, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    @Fork(1)
+    public long steadyState() {
+        return solve();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public long coldStart() {
+        return solve();
+    }
+
+    private long solve() {
+        return star == 1
+                ? solution.solution_star1(file)
+                : solution.solution_star2(file);
+    }
+}
@@ -0,0 +1,43 @@
+package me.gritter.aoc2023;
+
+import java.util.Objects;
+
+public class Answers {
+
+    private final long star1;
+    private final long star2;
+
+    public Answers(long star1, long star2) {
+        this.star1 = star1;
+        this.star2 = star2;
+    }
+
+    public long getStar1() {
+        return star1;
+    }
+
+    public long getStar2() {
+        return star2;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Answers answers = (Answers) o;
+        return star1 == answers.star1 && star2 == answers.star2;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(star1, star2);
+    }
+
+    @Override
+    public String toString() {
+        return "Answers{" +
+                "star1=" + star1 +
+                ", star2=" + star2 +
+                '}';
+    }
+}
@@ -0,0 +1,257 @@
+package me.gritter.aoc2023;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Solves many input files and prints a JSON object per (file, star) as newline-delimited JSON.
+ * <p>
+ * Usage: {@code BatchRunner [--day n] [--stars 1,2] [--threads n] [--order completion|input] [--timeout seconds]
+ * <file|directory|glob>...}
+ * <p>
+ * Directories include every file directly inside them, and globs (e.g. {@code inputs/day5-*.txt}) are matched
+ * against the file system. The day is taken from {@code --day}, or else from the {@code dayN} in the file name.
+ * Every (file, star) is a separate task on a work-stealing {@link ForkJoinPool}, so slow inputs don't hold up the
+ * others. Results are printed as soon as they complete, or in the order of the inputs with {@code --order input}:
+ * <pre>
+ *   {"file":"/inputs/day5-a.txt","day":5,"star":1,"answer":265018614,"wallNanos":1234,"cpuNanos":1200}
+ *   {"file":"/inputs/day5-b.txt","day":5,"star":1,"error":"TIMEOUT","wallNanos":1234,"cpuNanos":1200}
+ * </pre>
+ * As in {@link Runner}, {@code cpuNanos} is the CPU time of the thread which ran the star only.
+ */
+public class BatchRunner {
+
+    private static final Pattern DAY_PATTERN = Pattern.compile("day(\\d+)", Pattern.CASE_INSENSITIVE);
+
+    public enum Order {
+        COMPLETION, INPUT
+    }
+
+    private final int threads;
+    private final Integer day;
+    private final Set<Integer> stars;
+    private final Order order;
+    private final Duration timeout;
+
+    /**
+     * @param day      day of all inputs, or {@code null} to infer it from the file names
+     * @param timeout  time budget of every star, or {@code null} for none
+     */
+    public BatchRunner(int threads, Integer day, Set<Integer> stars, Order order, Duration timeout) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
+        this.threads = threads;
+        this.day = day;
+        this.stars = new TreeSet<>(stars);
+        this.order = order;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Integer day = null;
+        Set<Integer> stars = new TreeSet<>(List.of(1, 2));
+        Order order = Order.COMPLETION;
+        Duration timeout = null;
+        List<Path> files = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--day":
+                    day = Integer.parseInt(args[++i]);
+                    break;
+                case "--stars":
+                    stars = Arrays.stream(args[++i].split(","))
+                            .map(Integer::parseInt)
+                            .collect(Collectors.toCollection(TreeSet::new));
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--order":
+                    order = Order.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                    break;
+                case "--timeout":
+                    timeout = Duration.ofMillis((long) (Double.parseDouble(args[++i]) * 1000));
+                    break;
+                default:
+                    files.addAll(expand(args[i]));
+            }
+        }
+
+        new BatchRunner(threads, day, stars, order, timeout).run(files, System.out::println);
+    }
+
+    /**
+     * Expands a command line argument to the files it refers to: a file, the files in a directory, or the files
+     * matching a glob.
+     */
+    public static List<Path> expand(String argument) {
+        try {
+            if (argument.chars().anyMatch(c -> "*?[{".indexOf(c) >= 0)) {
+                return expandGlob(argument);
+            }
+
+            Path path = Path.of(argument);
+            if (Files.isDirectory(path)) {
+                try (Stream<Path> files = Files.list(path)) {
+                    return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+            }
+
+            return List.of(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Path> expandGlob(String glob) throws IOException {
+        // Walk from the deepest directory without wildcards, the walked paths keep that directory as their prefix
+        Path pattern = Path.of(glob);
+        Path base = pattern.isAbsolute() ? pattern.getRoot() : Path.of("");
+        for (Path part : pattern) {
+            if (part.toString().chars().anyMatch(c -> "*?[{".indexOf(c) >= 0)) {
+                break;
+            }
+
+            base = base.resolve(part);
+        }
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> files = Files.walk(base)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(matcher::matches)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    public void run(List<Path> files, Consumer<String> out) throws InterruptedException {
+        Map<Integer, Solution> solutions = new HashMap<>();
+        List<Runnable> tasks = new ArrayList<>();
+        Emitter emitter = new Emitter(out, order);
+
+        for (Path path : files) {
+            String file = path.toAbsolutePath().normalize().toString();
+            Integer fileDay = day != null ? day : inferDay(path);
+
+            for (int star : stars) {
+                int index = emitter.reserve();
+
+                if (fileDay == null) {
+                    emitter.emit(index, String.format("{\"file\":%s,\"star\":%d,\"error\":%s}",
+                            json(file), star, json("Can't infer the day from the file name.")));
+                    continue;
+                }
+
+                Solution solution;
+                try {
+                    solution = solutions.computeIfAbsent(fileDay, Solutions::byDay);
+                } catch (IllegalArgumentException e) {
+                    emitter.emit(index, String.format("{\"file\":%s,\"day\":%d,\"star\":%d,\"error\":%s}",
+                            json(file), fileDay, star, json(e.getMessage())));
+                    continue;
+                }
+
+                tasks.add(() -> {
+                    Runner.RunResult result = Runner.runStar(solution, fileDay, star, file, timeout);
+                    emitter.emit(index, format(file, result));
+                });
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+        try {
+            List<Future<?>> futures = tasks.stream()
+                    .map(pool::submit)
+                    .collect(Collectors.toList());
+
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Integer inferDay(Path path) {
+        Matcher matcher = DAY_PATTERN.matcher(path.getFileName().toString());
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : null;
+    }
+
+    private static String format(String file, Runner.RunResult result) {
+        String outcome;
+        try {
+            outcome = "\"answer\":" + Long.parseLong(result.getResult());
+        } catch (NumberFormatException e) {
+            outcome = "\"error\":" + json(result.getResult());
+        }
+
+        return String.format("{\"file\":%s,\"day\":%d,\"star\":%d,%s,\"wallNanos\":%d,\"cpuNanos\":%d}",
+                json(file), result.getDay(), result.getStar(), outcome, result.getWallNanos(), result.getCpuNanos());
+    }
+
+    private static String json(String value) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Writes the results either as they complete, or in the order their slots were reserved.
+     */
+    private static class Emitter {
+
+        private final Consumer<String> out;
+        private final Order order;
+        private final List<String> pending = new ArrayList<>();
+        private int next;
+
+        public Emitter(Consumer<String> out, Order order) {
+            this.out = out;
+            this.order = order;
+        }
+
+        public synchronized int reserve() {
+            pending.add(null);
+            return pending.size() - 1;
+        }
+
+        public synchronized void emit(int index, String line) {
+            if (order == Order.COMPLETION) {
+                out.accept(line);
+                return;
+            }
+
+            pending.set(index, line);
+            while (next < pending.size() && pending.get(next) != null) {
+                out.accept(pending.get(next));
+                pending.set(next++, null);
+            }
+        }
+    }
+}
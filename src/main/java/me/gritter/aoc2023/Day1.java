@@ -1,22 +1,56 @@
 package me.gritter.aoc2023;
 
-import java.util.Map;
-import java.util.Optional;
-import java.util.function.BiFunction;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
+/**
+ * The first and last digit on every line are found using a {@link Strategy}, which feeds the characters to a
+ * {@link DigitMatcher}: {@link Strategy#BIDIRECTIONAL} (the default) scans from both ends of the line and stops at
+ * the first digit, {@link Strategy#FORWARD} scans every character.
+ * <p>
+ * Files are split into chunks of whole lines, which are summed in parallel on the fork-join pool. Every chunk maps its
+ * own region of the file, so inputs may be larger than a single buffer. Files smaller than a chunk are summed on the
+ * calling thread. Inputs which can't be memory-mapped (standard input and compressed files) are streamed line by line
+ * instead, as are all inputs with a chunk size of {@link #SEQUENTIAL}.
+ */
 public class Day1 implements Solution {
 
-    private static final Map<String, Integer> NUMBERS = Map.of(
-            "one", 1,
-            "two", 2,
-            "three", 3,
-            "four", 4,
-            "five", 5,
-            "six", 6,
-            "seven", 7,
-            "eight", 8,
-            "nine", 9
-    );
+    public static final int SEQUENTIAL = 0;
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private static final int MAX_REGION_SIZE = Integer.MAX_VALUE;
+    private static final int SCAN_WINDOW_SIZE = 1 << 16;
+
+    private final Strategy strategy;
+    private final int chunkSize;
+
+    public Day1() {
+        this(Strategy.BIDIRECTIONAL);
+    }
+
+    public Day1(Strategy strategy) {
+        this(strategy, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param chunkSize  minimum number of bytes per parallel chunk, or {@link #SEQUENTIAL} to read the lines one by one
+     *                   on the calling thread
+     */
+    public Day1(Strategy strategy, int chunkSize) {
+        if (chunkSize < 0) {
+            throw new IllegalArgumentException("chunkSize must not be negative");
+        }
+
+        this.strategy = strategy;
+        this.chunkSize = chunkSize;
+    }
 
     public static void main(String[] args) {
         Solution solution = new Day1();
@@ -25,59 +59,287 @@ public class Day1 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        return Utils.readLines(file)
-                .mapToInt(line -> extractNumber(line, this::extractNumberByChar))
-                .sum();
+        return sumCalibrationValues(file, DigitMatcher.DIGITS)[0];
     }
 
     @Override
     public long solution_star2(String file) {
-        return Utils.readLines(file)
-                .mapToInt(line -> extractNumber(line, this::extractNumberByCharOrName))
-                .sum();
+        return sumCalibrationValues(file, DigitMatcher.DIGITS_AND_WORDS)[0];
+    }
+
+    @Override
+    public Answers solveBoth(String file) {
+        long[] sums = sumCalibrationValues(file, DigitMatcher.DIGITS, DigitMatcher.DIGITS_AND_WORDS);
+        return new Answers(sums[0], sums[1]);
+    }
+
+    /**
+     * Returns the sum of the calibration values of all lines, for every matcher.
+     */
+    private long[] sumCalibrationValues(String file, DigitMatcher... matchers) {
+        try {
+            InputSource source = InputSource.of(file);
+            if (chunkSize == SEQUENTIAL || !source.isMapped()) {
+                return sumLines(file, matchers);
+            }
+
+            return new ChunkTask(source, 0, source.size(), strategy, matchers, chunkSize, SolveContext.current(),
+                    Metrics.current()).invoke();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long[] sumLines(String file, DigitMatcher[] matchers) {
+        long[] sums = new long[matchers.length];
+
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            for (Iterator<List<String>> batches = Utils.parseBatches(lines, Function.identity()); batches.hasNext(); ) {
+                List<String> batch = batches.next();
+                Metrics.current().phase("solve", () -> {
+                    for (String line : batch) {
+                        for (int i = 0; i < matchers.length; i++) {
+                            sums[i] += strategy.calibrationValue(line, matchers[i]);
+                        }
+                    }
+                });
+            }
+        }
+
+        return sums;
     }
 
-    private int extractNumber(String input, BiFunction<String, Integer, Optional<Integer>> charMapFunction) {
-        int first = -1;
-        int last = -1;
+    /**
+     * Sums the lines in a byte range of the input, which starts at the start of a line and ends at the end of one. A
+     * range larger than twice the chunk size (or than a buffer) is split in two at the first line break after its
+     * middle. Every range which isn't split maps its bytes as one buffer in a {@code parse} phase, and sums it in a
+     * {@code solve} phase.
+     */
+    private static class ChunkTask extends RecursiveTask<long[]> {
+
+        private static final long serialVersionUID = 1L;
 
-        for (int i = 0; i < input.length(); i++) {
-            Optional<Integer> digit = charMapFunction.apply(input, i);
-            if (digit.isPresent()) {
-                if (first == -1) {
-                    first = digit.get();
+        private final InputSource source;
+        private final long start;
+        private final long end;
+        private final Strategy strategy;
+        private final DigitMatcher[] matchers;
+        private final int chunkSize;
+        private final SolveContext context;
+        private final Metrics metrics;
+
+        public ChunkTask(InputSource source, long start, long end, Strategy strategy, DigitMatcher[] matchers,
+                         int chunkSize, SolveContext context, Metrics metrics) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+            this.strategy = strategy;
+            this.matchers = matchers;
+            this.chunkSize = chunkSize;
+            this.context = context;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (end - start > Math.min(2L * chunkSize, MAX_REGION_SIZE)) {
+                long split = nextLineStart(start + (end - start) / 2);
+                if (split < end) {
+                    ChunkTask second = subtask(split, end);
+                    second.fork();
+                    long[] sums = subtask(start, split).compute();
+                    long[] secondSums = second.join();
+                    for (int i = 0; i < sums.length; i++) {
+                        sums[i] += secondSums[i];
+                    }
+
+                    return sums;
                 }
+            }
 
-                last = digit.get();
+            if (end - start > MAX_REGION_SIZE) {
+                throw new IllegalStateException("Line at position " + start + " doesn't fit in a buffer.");
             }
+
+            context.checkpoint();
+            ByteBuffer buffer = metrics.phase("parse", () -> map(start, (int) (end - start)));
+            return metrics.phase("solve", () -> sumChunk(buffer));
         }
 
-        if (first == -1 || last == -1) {
-            throw new IllegalStateException();
+        private ChunkTask subtask(long start, long end) {
+            return new ChunkTask(source, start, end, strategy, matchers, chunkSize, context, metrics);
         }
 
-        return first * 10 + last;
-    }
+        private long[] sumChunk(ByteBuffer buffer) {
+            long[] sums = new long[matchers.length];
+            BufferLine line = new BufferLine(buffer);
+
+            int lineStart = 0;
+            while (lineStart < buffer.limit()) {
+                int lineEnd = lineStart;
+                while (lineEnd < buffer.limit() && buffer.get(lineEnd) != '\n') {
+                    lineEnd++;
+                }
+
+                // Skip empty lines, like the streamed lines
+                line.set(lineStart, lineEnd);
+                if (lineEnd > lineStart && !(lineEnd == lineStart + 1 && buffer.get(lineStart) == '\r')) {
+                    for (int i = 0; i < matchers.length; i++) {
+                        sums[i] += strategy.calibrationValue(line, matchers[i]);
+                    }
+                }
+
+                lineStart = lineEnd + 1;
+            }
+
+            return sums;
+        }
 
-    private Optional<Integer> extractNumberByName(String input, int offset) {
-        return NUMBERS.entrySet()
-                .stream()
-                .filter(entry -> input.startsWith(entry.getKey(), offset))
-                .map(Map.Entry::getValue)
-                .findFirst();
+        /**
+         * Returns the first position at or after {@code position} which follows a line break, or the end of the range.
+         * The bytes are mapped in small windows, up to the line break.
+         */
+        private long nextLineStart(long position) {
+            while (position < end) {
+                // The window starts at the byte before the position
+                int window = (int) Math.min(SCAN_WINDOW_SIZE, end - position + 1);
+                ByteBuffer bytes = map(position - 1, window);
+                for (int i = 0; i < window; i++) {
+                    if (bytes.get(i) == '\n') {
+                        return position + i;
+                    }
+                }
+
+                position += window;
+            }
+
+            return end;
+        }
+
+        private ByteBuffer map(long position, int size) {
+            try {
+                return source.map(position, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
     }
 
-    private Optional<Integer> extractNumberByChar(String input, int offset) {
-        char ch = input.charAt(offset);
-        if (!Character.isDigit(ch)) {
-            return Optional.empty();
+    /**
+     * Line of an ASCII input, read directly from a buffer. Other bytes read as characters above ASCII, which no
+     * {@link DigitMatcher} recognizes. Lines keep the carriage return of CRLF line breaks, which isn't a digit either.
+     */
+    private static class BufferLine implements CharSequence {
+
+        private final ByteBuffer buffer;
+        private int start;
+        private int end;
+
+        public BufferLine(ByteBuffer buffer) {
+            this.buffer = buffer;
         }
 
-        return Optional.of(ch - '0');
+        public void set(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (buffer.get(start + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            byte[] bytes = new byte[length()];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(start + i);
+            }
+
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
     }
 
-    private Optional<Integer> extractNumberByCharOrName(String input, int offset) {
-        return extractNumberByChar(input, offset)
-                .or(() -> extractNumberByName(input, offset));
+    /**
+     * Ways to find the first and last digit on a line.
+     */
+    public enum Strategy {
+
+        /**
+         * Scans the whole line forwards, keeping the last digit seen.
+         */
+        FORWARD {
+            @Override
+            public int calibrationValue(CharSequence line, DigitMatcher matcher) {
+                int first = DigitMatcher.NO_DIGIT;
+                int last = DigitMatcher.NO_DIGIT;
+
+                int state = DigitMatcher.INITIAL_STATE;
+                for (int i = 0; i < line.length(); i++) {
+                    state = matcher.next(state, line.charAt(i));
+
+                    int digit = matcher.digit(state);
+                    if (digit != DigitMatcher.NO_DIGIT) {
+                        if (first == DigitMatcher.NO_DIGIT) {
+                            first = digit;
+                        }
+
+                        last = digit;
+                    }
+                }
+
+                return combine(line, first, last);
+            }
+        },
+
+        /**
+         * Scans forwards until the first digit, and backwards from the end of the line until the last digit. The
+         * work depends on how far the digits are from the ends of the line, rather than on its length.
+         */
+        BIDIRECTIONAL {
+            @Override
+            public int calibrationValue(CharSequence line, DigitMatcher matcher) {
+                int first = DigitMatcher.NO_DIGIT;
+                int state = DigitMatcher.INITIAL_STATE;
+                for (int i = 0; i < line.length() && first == DigitMatcher.NO_DIGIT; i++) {
+                    state = matcher.next(state, line.charAt(i));
+                    first = matcher.digit(state);
+                }
+
+                // No digit word contains another one, so the match starting last is also the one ending last
+                DigitMatcher reversed = matcher.reversed();
+                int last = DigitMatcher.NO_DIGIT;
+                state = DigitMatcher.INITIAL_STATE;
+                for (int i = line.length() - 1; i >= 0 && last == DigitMatcher.NO_DIGIT; i--) {
+                    state = reversed.next(state, line.charAt(i));
+                    last = reversed.digit(state);
+                }
+
+                return combine(line, first, last);
+            }
+        };
+
+        /**
+         * Returns the first and last digit on a line as a two digit number.
+         */
+        public abstract int calibrationValue(CharSequence line, DigitMatcher matcher);
+
+        private static int combine(CharSequence line, int first, int last) {
+            if (first == DigitMatcher.NO_DIGIT) {
+                throw new IllegalStateException("No digit on line: " + line);
+            }
+
+            return first * 10 + last;
+        }
     }
 }
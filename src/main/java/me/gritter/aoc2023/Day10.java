@@ -1,9 +1,9 @@
 package me.gritter.aoc2023;
 
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
+import me.gritter.aoc2023.graph.GraphSearch;
+import me.gritter.aoc2023.graph.IntGraph;
+
+import java.util.BitSet;
 
 public class Day10 implements Solution {
 
@@ -14,363 +14,287 @@ public class Day10 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        Board board = loadBoard(file);
-
-        Position startPosition = board.positionStream()
-                .filter(pos -> board.get(pos) == Tile.START)
-                .findAny()
-                .orElseThrow();
-
-        Collection<Position> visited = new HashSet<>();
-        visited.add(startPosition);
-
-        Collection<Position> currentPositions = Set.of(startPosition);
-
-        int distance = 0;
-        while (!currentPositions.isEmpty()) {
-            currentPositions = currentPositions.stream()
-                    .flatMap(board::getConnectingTiles)
-                    .filter(pos -> !visited.contains(pos))
-                    .collect(Collectors.toSet());
-
-            if (!currentPositions.isEmpty()) {
-                distance++;
-                visited.addAll(currentPositions);
-            }
+        try (Board board = Metrics.current().phase("parse", () -> loadBoard(file))) {
+            // The start tile connects to exactly two pipes, so the loop is everything reachable from it.
+            return Metrics.current().phase("solve", () ->
+                    GraphSearch.breadthFirst(board.pipes(), board.findStart()).getDepth());
         }
-
-        return distance;
     }
 
     @Override
     public long solution_star2(String file) {
-        Board board = loadBoard(file);
-
-        Position startPosition = board.positionStream()
-                .filter(pos -> board.get(pos) == Tile.START)
-                .findAny()
-                .orElseThrow();
+        try (Board board = Metrics.current().phase("parse", () -> loadBoard(file))) {
+            return Metrics.current().phase("solve", () -> countEnclosedTiles(board));
+        }
+    }
 
-        Set<Position> loopPositions = new HashSet<>();
-        loopPositions.add(startPosition);
+    private long countEnclosedTiles(Board board) {
+        int start = board.findStart();
+        BitSet loop = GraphSearch.breadthFirst(board.pipes(), start).getVisited();
 
-        List<Position> orderedLoopPositions = new ArrayList<>();
-        orderedLoopPositions.add(startPosition);
+        // Walk the loop, collecting the tiles directly to the right and left of it.
+        BitSet rightHandTiles = new BitSet(board.size());
+        BitSet leftHandTiles = new BitSet(board.size());
 
+        int previous = start;
+        int current = board.nextAlongLoop(start, -1);
         while (true) {
-            var current = orderedLoopPositions.get(orderedLoopPositions.size() - 1);
-            var next = board.getConnectingTiles(current)
-                    .filter(pos -> !loopPositions.contains(pos))
-                    .findAny();
-
-            if (next.isPresent()) {
-                loopPositions.add(next.get());
-                orderedLoopPositions.add(next.get());
-            } else {
+            int direction = board.direction(previous, current);
+            markSide(board, loop, rightHandTiles, previous, current, (direction + 1) & 3);
+            markSide(board, loop, leftHandTiles, previous, current, (direction + 3) & 3);
+
+            if (current == start) {
                 break;
             }
-        }
-
-        orderedLoopPositions.add(startPosition);
-
-        Set<Position> rightHandPositions = new HashSet<>();
-        Set<Position> leftHandPositions = new HashSet<>();
-
-        for (int i = 1; i < orderedLoopPositions.size(); i++) {
-            Position previous = orderedLoopPositions.get(i - 1);
-            Position current = orderedLoopPositions.get(i);
-
-            Position delta = current.subtract(previous);
 
-            Stream.of(
-                            delta.rotateClockwise90().add(previous),
-                            delta.rotateClockwise90().add(current)
-                    )
-                    .filter(pos -> !loopPositions.contains(pos))
-                    .forEach(rightHandPositions::add);
-
-            Stream.of(
-                            delta.rotateCounterClockwise90().add(previous),
-                            delta.rotateCounterClockwise90().add(current)
-                    )
-                    .filter(pos -> !loopPositions.contains(pos))
-                    .forEach(leftHandPositions::add);
+            int next = board.nextAlongLoop(current, previous);
+            previous = current;
+            current = next;
         }
 
-        flush(board, rightHandPositions, loopPositions);
-        flush(board, leftHandPositions, loopPositions);
-
-        Set<Position> insidePositions;
-        Set<Position> outsidePositions;
+        IntGraph open = board.openTiles(loop);
+        BitSet rightHandPositions = GraphSearch.breadthFirst(open, rightHandTiles.stream().toArray()).getVisited();
+        BitSet leftHandPositions = GraphSearch.breadthFirst(open, leftHandTiles.stream().toArray()).getVisited();
 
-        if (rightHandPositions.stream().noneMatch(board::isOnBorder)) {
-            insidePositions = rightHandPositions;
-            outsidePositions = leftHandPositions;
-        } else if (leftHandPositions.stream().noneMatch(board::isOnBorder)) {
-            insidePositions = leftHandPositions;
-            outsidePositions = rightHandPositions;
+        // The outside of the loop touches the border of the board.
+        if (!board.touchesBorder(rightHandPositions)) {
+            return rightHandPositions.cardinality();
+        } else if (!board.touchesBorder(leftHandPositions)) {
+            return leftHandPositions.cardinality();
         } else {
             throw new IllegalStateException();
         }
-
-        for (int y = 0; y < board.getHeight(); y++) {
-            for (int x = 0; x < board.getWidth(); x++) {
-                Position pos = new Position(x, y);
-                if (loopPositions.contains(pos)) {
-                    Tile tile = board.get(pos);
-                    System.out.print(tile.symbol());
-                } else if (rightHandPositions.contains(pos)) {
-                    System.out.print('A');
-                } else if (leftHandPositions.contains(pos)) {
-                    System.out.print('B');
-                } else {
-                    System.out.print(' ');
-                }
-            }
-
-            System.out.println();
-        }
-
-        System.out.println();
-
-        for (int y = 0; y < board.getHeight(); y++) {
-            for (int x = 0; x < board.getWidth(); x++) {
-                Position pos = new Position(x, y);
-                if (loopPositions.contains(pos)) {
-                    Tile tile = board.get(pos);
-                    System.out.print(tile.symbol());
-                } else if (insidePositions.contains(pos)) {
-                    System.out.print('I');
-                } else if (outsidePositions.contains(pos)) {
-                    System.out.print('O');
-                } else {
-                    System.out.print(' ');
-                }
-            }
-
-            System.out.println();
-        }
-
-        System.out.println();
-        System.out.println("insidePositions.size() = " + insidePositions.size());
-
-        return insidePositions.size();
     }
 
-    private void flush(Board board, Set<Position> flushPositions, Set<Position> loopPositions) {
-        Set<Position> currentPositions = new HashSet<>(flushPositions);
-        while (!currentPositions.isEmpty()) {
-            currentPositions = currentPositions
-                    .stream()
-                    .flatMap(Position::neighborStream)
-                    .filter(board::isInBounds)
-                    .filter(pos -> !flushPositions.contains(pos))
-                    .filter(pos -> !loopPositions.contains(pos))
-                    .collect(Collectors.toSet());
-
-            flushPositions.addAll(currentPositions);
+    private void markSide(Board board, BitSet loop, BitSet side, int previous, int current, int sideDirection) {
+        for (int tile : new int[]{previous, current}) {
+            int neighbor = board.neighbor(tile, sideDirection);
+            if (neighbor != -1 && !loop.get(neighbor)) {
+                side.set(neighbor);
+            }
         }
     }
 
     private Board loadBoard(String file) {
-        List<String> lines = Utils.readLines(file).collect(Collectors.toList());
-
-        int height = lines.size();
-        int width = lines.stream()
-                .findFirst()
-                .map(String::length)
-                .orElseThrow();
+        return ParseCache.shared().get("day10-board", file, this::parseBoard);
+    }
 
-        Board board = new Board(width, height);
+    private Board parseBoard(String file) {
+        Grid grid = Grid.of(Utils.mapGrid(file));
 
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                char symbol = lines.get(y).charAt(x);
-                Tile tile = Tile.bySymbol(symbol);
-                board.set(new Position(x, y), tile);
-            }
+        // Validate all symbols
+        for (int i = 0; i < grid.size(); i++) {
+            Tile.bySymbol(grid.getChar(i));
         }
 
-        return board;
+        return new Board(grid);
     }
 
+    /**
+     * Tiles and the directions (north, east, south, west) they connect to, as a bit mask.
+     */
     public enum Tile {
 
-        NORTH_TO_SOUTH('|', Position.NORTH, Position.SOUTH),
-        EAST_TO_WEST('-', Position.EAST, Position.WEST),
-        NORTH_TO_EAST('L', Position.NORTH, Position.EAST),
-        NORTH_TO_WEST('J', Position.NORTH, Position.WEST),
-        SOUTH_TO_WEST('7', Position.SOUTH, Position.WEST),
-        SOUTH_TO_EAST('F', Position.SOUTH, Position.EAST),
+        NORTH_TO_SOUTH('|', Board.NORTH, Board.SOUTH),
+        EAST_TO_WEST('-', Board.EAST, Board.WEST),
+        NORTH_TO_EAST('L', Board.NORTH, Board.EAST),
+        NORTH_TO_WEST('J', Board.NORTH, Board.WEST),
+        SOUTH_TO_WEST('7', Board.SOUTH, Board.WEST),
+        SOUTH_TO_EAST('F', Board.SOUTH, Board.EAST),
         GROUND('.'),
-        START('S', Position.NORTH, Position.EAST, Position.SOUTH, Position.WEST);
+        START('S', Board.NORTH, Board.EAST, Board.SOUTH, Board.WEST);
+
+        private static final Tile[] BY_SYMBOL = new Tile[128];
+
+        static {
+            for (Tile tile : values()) {
+                BY_SYMBOL[tile.symbol] = tile;
+            }
+        }
 
         private final char symbol;
-        private final Collection<Position> deltas;
+        private final int connections;
+
+        Tile(char symbol, int... directions) {
+            int connections = 0;
+            for (int direction : directions) {
+                connections |= 1 << direction;
+            }
 
-        Tile(char symbol, Position... deltas) {
             this.symbol = symbol;
-            this.deltas = Set.of(deltas);
+            this.connections = connections;
         }
 
         public char symbol() {
             return symbol;
         }
 
-        public Stream<Position> deltas() {
-            return deltas.stream();
+        public boolean connects(int direction) {
+            return (connections & (1 << direction)) != 0;
         }
 
         public static Tile bySymbol(char symbol) {
-            for (Tile tile : values()) {
-                if (tile.symbol == symbol) {
-                    return tile;
-                }
+            Tile tile = symbol < BY_SYMBOL.length ? BY_SYMBOL[symbol] : null;
+            if (tile == null) {
+                throw new IllegalArgumentException();
             }
 
-            throw new IllegalArgumentException();
+            return tile;
         }
     }
 
-    public static class Board {
+    public static class Board implements ParseCache.Snapshottable<Board>, AutoCloseable {
 
-        private final Tile[] tiles;
-        private final int width;
-        private final int height;
+        public static final int NORTH = 0;
+        public static final int EAST = 1;
+        public static final int SOUTH = 2;
+        public static final int WEST = 3;
 
-        public Board(int width, int height) {
-            this.tiles = new Tile[width * height];
-            this.width = width;
-            this.height = height;
+        private static final int[] DX = {0, 1, 0, -1};
+        private static final int[] DY = {-1, 0, 1, 0};
 
-            Arrays.fill(tiles, Tile.GROUND);
-        }
+        private final Grid grid;
+        private final int width;
+        private final int height;
 
-        public boolean isInBounds(Position position) {
-            return position.x >= 0 && position.x < width && position.y >= 0 && position.y < height;
+        public Board(Grid grid) {
+            this.grid = grid;
+            this.width = grid.getWidth();
+            this.height = grid.getHeight();
         }
 
-        public boolean isOnBorder(Position position) {
-            return position.x == 0 || position.x == width - 1 || position.y == 0 || position.y == height - 1;
+        @Override
+        public Board snapshot() {
+            return new Board(grid.snapshot());
         }
 
-        public Tile get(Position position) {
-            if (!isInBounds(position)) {
-                throw new IllegalArgumentException(String.valueOf(position));
-            }
-
-            return tiles[position.y * width + position.x];
+        @Override
+        public void close() {
+            grid.close();
         }
 
-        public void set(Position position, Tile tile) {
-            if (!isInBounds(position)) {
-                throw new IllegalArgumentException();
+        public int findStart() {
+            for (int i = 0; i < grid.size(); i++) {
+                if (get(i) == Tile.START) {
+                    return i;
+                }
             }
 
-            tiles[position.y * width + position.x] = tile;
+            throw new IllegalStateException("Board has no start tile.");
         }
 
-        public Stream<Position> positionStream() {
-            return IntStream.range(0, width * height - 1)
-                    .mapToObj(i -> new Position(i % width, i / width));
+        public Tile get(int index) {
+            return Tile.bySymbol(grid.getChar(index));
         }
 
-        public Stream<Position> getConnectingTiles(Position position) {
-            return get(position)
-                    .deltas()
-                    .map(position::add)
-                    .filter(this::isInBounds)
-                    .filter(neighborPosition ->
-                            get(neighborPosition)
-                                    .deltas()
-                                    .map(neighborPosition::add)
-                                    .anyMatch(position::equals)
-                    );
+        /**
+         * Returns the index of the tile next to {@code index} in {@code direction}, or -1 if it's out of bounds.
+         */
+        public int neighbor(int index, int direction) {
+            int x = grid.x(index) + DX[direction];
+            int y = grid.y(index) + DY[direction];
+            return grid.isInBounds(x, y) ? grid.index(x, y) : -1;
         }
 
-        public int getWidth() {
-            return width;
-        }
+        public int direction(int from, int to) {
+            for (int direction = 0; direction < 4; direction++) {
+                if (neighbor(from, direction) == to) {
+                    return direction;
+                }
+            }
 
-        public int getHeight() {
-            return height;
+            throw new IllegalArgumentException("Tiles " + from + " and " + to + " aren't adjacent.");
         }
 
-        @Override
-        public String toString() {
-            StringBuilder sb = new StringBuilder();
+        /**
+         * Returns the neighbor of {@code index} connected to it by pipes in {@code direction}, or -1.
+         */
+        public int connectingTile(int index, int direction) {
+            if (!get(index).connects(direction)) {
+                return -1;
+            }
 
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    Tile tile = get(new Position(x, y));
-                    sb.append(tile.symbol());
-                }
+            int neighbor = neighbor(index, direction);
+            return neighbor != -1 && get(neighbor).connects((direction + 2) & 3) ? neighbor : -1;
+        }
 
-                if (y != height - 1) {
-                    sb.append('\n');
+        /**
+         * Returns a tile connected to {@code index} other than {@code previous}.
+         */
+        public int nextAlongLoop(int index, int previous) {
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbor = connectingTile(index, direction);
+                if (neighbor != -1 && neighbor != previous) {
+                    return neighbor;
                 }
             }
 
-            return sb.toString();
+            throw new IllegalStateException("Loop is broken at " + index + ".");
         }
-    }
-
-    public static class Position {
 
-        public static final Position NORTH = new Position(0, -1);
-        public static final Position EAST = new Position(1, 0);
-        public static final Position SOUTH = new Position(0, 1);
-        public static final Position WEST = new Position(-1, 0);
-
-        public final int x;
-        public final int y;
-
-        public Position(int x, int y) {
-            this.x = x;
-            this.y = y;
-        }
+        /**
+         * Graph of the tiles connected by pipes.
+         */
+        public IntGraph pipes() {
+            return new IntGraph() {
+                @Override
+                public int stateCount() {
+                    return grid.size();
+                }
 
-        public Stream<Position> neighborStream() {
-            return Stream.of(NORTH, EAST, SOUTH, WEST)
-                    .map(this::add);
+                @Override
+                public void forEachEdge(int index, EdgeConsumer consumer) {
+                    for (int direction = 0; direction < 4; direction++) {
+                        int neighbor = connectingTile(index, direction);
+                        if (neighbor != -1) {
+                            consumer.accept(neighbor, 1);
+                        }
+                    }
+                }
+            };
         }
 
-        public Position rotateClockwise90() {
-            return new Position(-y, x);
-        }
+        /**
+         * Graph of the adjacent tiles which aren't part of {@code loop}.
+         */
+        public IntGraph openTiles(BitSet loop) {
+            return new IntGraph() {
+                @Override
+                public int stateCount() {
+                    return grid.size();
+                }
 
-        public Position rotateCounterClockwise90() {
-            return new Position(y, -x);
+                @Override
+                public void forEachEdge(int index, EdgeConsumer consumer) {
+                    for (int direction = 0; direction < 4; direction++) {
+                        int neighbor = neighbor(index, direction);
+                        if (neighbor != -1 && !loop.get(neighbor)) {
+                            consumer.accept(neighbor, 1);
+                        }
+                    }
+                }
+            };
         }
 
-        public Position add(Position delta) {
-            return new Position(x + delta.x, y + delta.y);
+        public boolean touchesBorder(BitSet tiles) {
+            return tiles.stream().anyMatch(grid::isOnBorder);
         }
 
-        public Position subtract(Position delta) {
-            return new Position(x - delta.x, y - delta.y);
+        public int size() {
+            return grid.size();
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Position position = (Position) o;
-            return x == position.x && y == position.y;
+        public int getWidth() {
+            return width;
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(x, y);
+        public int getHeight() {
+            return height;
         }
 
         @Override
         public String toString() {
-            return "Position{" +
-                    "x=" + x +
-                    ", y=" + y +
-                    '}';
+            return grid.toString();
         }
     }
 }
-
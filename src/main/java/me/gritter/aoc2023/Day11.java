@@ -32,15 +32,17 @@ public class Day11 implements Solution {
     }
 
     public long solution(String file, long expansionFactor) {
-        Universe universe = loadUniverse(file);
+        Universe universe = Metrics.current().phase("parse", () -> loadUniverse(file));
 
-        universe.expand(BigInteger.valueOf(expansionFactor));
+        return Metrics.current().phase("solve", () -> {
+            universe.expand(BigInteger.valueOf(expansionFactor));
 
-        var sum = universe.galaxyPairStream()
-                .map(pair -> universe.distanceBetween(pair.getLeft(), pair.getRight()))
-                .reduce(ZERO, BigInteger::add);
+            var sum = universe.galaxyPairStream()
+                    .map(pair -> universe.distanceBetween(pair.getLeft(), pair.getRight()))
+                    .reduce(ZERO, BigInteger::add);
 
-        return sum.longValueExact();
+            return sum.longValueExact();
+        });
     }
 
     private Universe loadUniverse(String file) {
@@ -1,13 +1,16 @@
 package me.gritter.aoc2023;
 
+import me.gritter.aoc2023.collections.IntArrayList;
+
 import java.util.*;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.apache.commons.lang3.StringUtils.*;
 
 public class Day12 implements Solution {
 
+    private static final int MEMO_CAPACITY = 1 << 16;
+
     public static void main(String[] args) {
         Solution solution = new Day12();
         System.out.println(solution.solution_star2("day12-puzzle.txt"));
@@ -15,17 +18,40 @@ public class Day12 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        return Utils.readLines(file)
-                .mapToLong(this::calculateRearrangementsFromLine)
-                .sum();
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            return sumRearrangements(Utils.parseBatches(lines, this::parseRecord));
+        }
     }
 
     @Override
     public long solution_star2(String file) {
-        return Utils.readLines(file)
-                .map(this::unfoldLine)
-                .mapToLong(this::calculateRearrangementsFromLine)
-                .sum();
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            return sumRearrangements(Utils.parseBatches(lines, line -> parseRecord(unfoldLine(line))));
+        }
+    }
+
+    private long sumRearrangements(Iterator<List<ConditionRecord>> batches) {
+        SolveContext context = SolveContext.current();
+
+        MemoCache cache = new MemoCache("day12.memo", MEMO_CAPACITY);
+
+        long sum = 0;
+        long[] recordsDone = {0}; // Counted by the solve phases
+        while (batches.hasNext()) {
+            List<ConditionRecord> records = batches.next();
+            sum += Metrics.current().phase("solve", () -> {
+                long batchSum = 0;
+                for (ConditionRecord record : records) {
+                    batchSum += calculateRearrangements(record, cache);
+                    context.progress(++recordsDone[0], -1);
+                }
+
+                return batchSum;
+            });
+        }
+
+        cache.publish(Metrics.current());
+        return sum;
     }
 
     private String unfoldLine(String line) {
@@ -35,102 +61,102 @@ public class Day12 implements Solution {
         return repeat(gears, "?", 5) + " " + repeat(contiguouslyDamaged, ",", 5);
     }
 
-    private List<Integer> parseContiguouslyDamaged(String line) {
-        return Stream.of(
-                        substringAfter(line, " ").split(",")
-                )
-                .map(Integer::parseInt)
-                .collect(Collectors.toUnmodifiableList());
+    private int[] parseContiguouslyDamaged(String line) {
+        NumberScanner scanner = new NumberScanner(line, line.indexOf(' '), line.length());
+        IntArrayList groups = new IntArrayList();
+        while (scanner.hasNext()) {
+            groups.add(scanner.nextInt());
+        }
+
+        return groups.toArray();
     }
 
-    private List<Gear> parseGears(String line) {
+    private Gear[] parseGears(String line) {
         return substringBefore(line, " ")
                 .chars()
-                .mapToObj(c -> (char) c)
-                .map(Gear::bySymbol)
-                .collect(Collectors.toUnmodifiableList());
+                .mapToObj(c -> Gear.bySymbol((char) c))
+                .toArray(Gear[]::new);
     }
 
-    private long calculateRearrangementsFromLine(String line) {
-        List<Gear> gears = parseGears(line);
-        List<Integer> contiguouslyDamaged = parseContiguouslyDamaged(line);
-        return calculateRearrangements(gears, contiguouslyDamaged, 0, new HashMap<>());
+    private ConditionRecord parseRecord(String line) {
+        return new ConditionRecord(parseGears(line), parseContiguouslyDamaged(line));
     }
 
-    private long calculateRearrangements(List<Gear> gears, List<Integer> brokenGroups, int currentBroken, Map<CacheKey, Long> cache) {
-        CacheKey key = new CacheKey(gears, brokenGroups, currentBroken);
-        Long result = cache.get(key);
-        if (result == null) {
-            result = calculateRearrangements_worker(gears, brokenGroups, currentBroken, cache);
+    private long calculateRearrangements(ConditionRecord record, MemoCache cache) {
+        // Keys are only valid for the gears and groups of this record
+        cache.clear();
+        return calculateRearrangements(record.getGears(), record.getContiguouslyDamaged(), 0, 0, 0, cache);
+    }
+
+    /**
+     * Counts the rearrangements of {@code gears[position..]}, given that {@code currentBroken} gears directly before
+     * {@code position} are broken, and the groups before {@code brokenGroup} have been matched.
+     */
+    private long calculateRearrangements(Gear[] gears, int[] brokenGroups, int position, int brokenGroup, int currentBroken, MemoCache cache) {
+        long key = MemoCache.pack(position, brokenGroup, currentBroken);
+        long result = cache.get(key, -1);
+        if (result == -1) {
+            result = calculateRearrangements_worker(gears, brokenGroups, position, brokenGroup, currentBroken, cache);
             cache.put(key, result);
         }
 
         return result;
     }
 
-    private long calculateRearrangements_worker(List<Gear> gears, List<Integer> brokenGroups, int currentBroken, Map<CacheKey, Long> cache) {
-        if (gears.isEmpty()) {
-            if (brokenGroups.size() > 1) {
-                // There are more broken groups left.
-                return 0;
-            } else if (brokenGroups.size() == 1 && currentBroken != brokenGroups.get(0)) {
-                // The last broken group size doesn't match the amount of current contiguously broken gears.
-                return 0;
+    private long calculateRearrangements_worker(Gear[] gears, int[] brokenGroups, int position, int brokenGroup, int currentBroken, MemoCache cache) {
+        if (position == gears.length) {
+            if (currentBroken == 0) {
+                // Valid if there are no more broken groups left.
+                return brokenGroup == brokenGroups.length ? 1 : 0;
             } else {
-                // All previous recursive checks succeeded. Assume this branch was valid.
-                return 1;
+                // Valid if the current contiguously broken gears are the last broken group.
+                return brokenGroup == brokenGroups.length - 1 && currentBroken == brokenGroups[brokenGroup] ? 1 : 0;
             }
         }
 
-        Gear gear = gears.get(0);
+        Gear gear = gears[position];
+        long total = 0;
 
-        if (brokenGroups.isEmpty()) {
-            if (gear == Gear.BROKEN) {
-                // We're not expecting broken gears anymore, but found one.
-                return 0;
-            } else {
-                // Continue as normal.
-                return calculateRearrangements(gears.subList(1, gears.size()), brokenGroups, currentBroken, cache);
+        if (gear != Gear.BROKEN) {
+            // Treat this gear as working.
+            if (currentBroken == 0) {
+                total += calculateRearrangements(gears, brokenGroups, position + 1, brokenGroup, 0, cache);
+            } else if (currentBroken == brokenGroups[brokenGroup]) {
+                // Group of contiguously broken gears has ended with the size we expected.
+                total += calculateRearrangements(gears, brokenGroups, position + 1, brokenGroup + 1, 0, cache);
             }
         }
 
-        if (gear == Gear.UNKNOWN) {
-            long total = 0;
-
-            for (Gear replacement : List.of(Gear.WORKING, Gear.BROKEN)) {
-                List<Gear> branchGears = new ArrayList<>(gears);
-                branchGears.set(0, replacement);
-                total += calculateRearrangements(branchGears, brokenGroups, currentBroken, cache);
+        if (gear != Gear.WORKING) {
+            // Treat this gear as broken, if we're still expecting broken gears in this group.
+            if (brokenGroup < brokenGroups.length && currentBroken < brokenGroups[brokenGroup]) {
+                total += calculateRearrangements(gears, brokenGroups, position + 1, brokenGroup, currentBroken + 1, cache);
             }
-
-            // Return sum of two branches.
-            return total;
         }
 
-        int brokenExpected = brokenGroups.get(0);
+        return total;
+    }
 
-        if (gear == Gear.BROKEN) {
-            currentBroken++;
-            if (currentBroken > brokenExpected) {
-                // Found more broken than expected.
-                return 0;
-            }
-        } else if (gear == Gear.WORKING) {
-            if (currentBroken > 0) {
-                // Group of contiguously broken gears has ended
-                if (currentBroken != brokenExpected) {
-                    // Size doesn't match what we expected.
-                    return 0;
-                }
+    /**
+     * The gears of a line, and the sizes of its contiguous groups of damaged gears.
+     */
+    private static class ConditionRecord {
 
-                // Reset running variables for next recursive call.
-                brokenGroups = brokenGroups.subList(1, brokenGroups.size());
-                currentBroken = 0;
-            }
+        private final Gear[] gears;
+        private final int[] contiguouslyDamaged;
+
+        public ConditionRecord(Gear[] gears, int[] contiguouslyDamaged) {
+            this.gears = gears;
+            this.contiguouslyDamaged = contiguouslyDamaged;
+        }
+
+        public Gear[] getGears() {
+            return gears;
         }
 
-        // Continue as normal.
-        return calculateRearrangements(gears.subList(1, gears.size()), brokenGroups, currentBroken, cache);
+        public int[] getContiguouslyDamaged() {
+            return contiguouslyDamaged;
+        }
     }
 
     private enum Gear {
@@ -158,30 +184,4 @@ public class Day12 implements Solution {
             throw new IllegalArgumentException();
         }
     }
-
-    private static class CacheKey {
-
-        private final List<Gear> gears;
-        private final List<Integer> brokenGroups;
-        private final int currentBroken;
-
-        public CacheKey(List<Gear> gears, List<Integer> brokenGroups, int currentBroken) {
-            this.gears = gears;
-            this.brokenGroups = brokenGroups;
-            this.currentBroken = currentBroken;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            CacheKey cacheKey = (CacheKey) o;
-            return currentBroken == cacheKey.currentBroken && Objects.equals(gears, cacheKey.gears) && Objects.equals(brokenGroups, cacheKey.brokenGroups);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(gears, brokenGroups, currentBroken);
-        }
-    }
 }
@@ -14,60 +14,95 @@ public class Day13 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        return loadReflectionPatterns(file)
-                .map(ReflectionPattern::findReflection)
-                .mapToInt(Reflection::calculateValue)
-                .sum();
+        try (Patterns patterns = loadReflectionPatterns(file)) {
+            return Metrics.current().phase("solve", () -> patterns.stream()
+                    .map(ReflectionPattern::findReflection)
+                    .mapToInt(Reflection::calculateValue)
+                    .sum());
+        }
     }
 
     @Override
     public long solution_star2(String file) {
-        return loadReflectionPatterns(file)
-                .map(ReflectionPattern::findSmudgedReflection)
-                .mapToInt(Reflection::calculateValue)
-                .sum();
+        try (Patterns patterns = loadReflectionPatterns(file)) {
+            return Metrics.current().phase("solve", () -> patterns.stream()
+                    .map(ReflectionPattern::findSmudgedReflection)
+                    .mapToInt(Reflection::calculateValue)
+                    .sum());
+        }
     }
 
-    private Stream<ReflectionPattern> loadReflectionPatterns(String file) {
-        return Stream.of(Utils.readFile(file).split("\n\n"))
-                .map(this::parseReflectionPattern);
+    @Override
+    public Answers solveBoth(String file) {
+        try (Patterns patterns = loadReflectionPatterns(file)) {
+            return Metrics.current().phase("solve", () -> {
+                long star1 = 0;
+                long star2 = 0;
+                for (ReflectionPattern pattern : patterns.stream().collect(Collectors.toList())) {
+                    star1 += pattern.findReflection().calculateValue();
+                    star2 += pattern.findSmudgedReflection().calculateValue();
+                }
+
+                return new Answers(star1, star2);
+            });
+        }
     }
 
-    private ReflectionPattern parseReflectionPattern(String string) {
-        String[] lines = string.split("\n");
-        int width = lines[0].length();
-        int height = lines.length;
+    private Patterns loadReflectionPatterns(String file) {
+        // Patterns are smudged while searching, so every call works on its own (copy-on-write) snapshots.
+        return Metrics.current().phase("parse", () ->
+                ParseCache.shared().get("day13-patterns", file, this::parseReflectionPatterns));
+    }
 
-        char[] symbols = new char[width * height];
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                symbols[x + y * width] = lines[y].charAt(x);
-            }
+    private Patterns parseReflectionPatterns(String file) {
+        return new Patterns(InputGrid.split(Utils.mapFile(file))
+                .stream()
+                .map(Grid::of)
+                .collect(Collectors.toUnmodifiableList()));
+    }
+
+    private static class Patterns implements ParseCache.Snapshottable<Patterns>, AutoCloseable {
+
+        private final List<Grid> grids;
+
+        public Patterns(List<Grid> grids) {
+            this.grids = grids;
+        }
+
+        public Stream<ReflectionPattern> stream() {
+            return grids.stream().map(ReflectionPattern::new);
         }
 
-        return new ReflectionPattern(symbols, width, height);
+        @Override
+        public Patterns snapshot() {
+            return new Patterns(grids.stream()
+                    .map(Grid::snapshot)
+                    .collect(Collectors.toUnmodifiableList()));
+        }
+
+        @Override
+        public void close() {
+            grids.forEach(Grid::close);
+        }
     }
 
     private static class ReflectionPattern {
 
-        private final char[] symbols;
+        private final Grid symbols;
         private final int width;
         private final int height;
 
-        public ReflectionPattern(char[] symbols, int width, int height) {
-            if (symbols.length != width * height) {
-                throw new IllegalArgumentException();
-            }
-
-            for (char symbol : symbols) {
+        public ReflectionPattern(Grid symbols) {
+            for (int i = 0; i < symbols.size(); i++) {
+                char symbol = symbols.getChar(i);
                 if (symbol != '.' && symbol != '#') {
                     throw new IllegalArgumentException();
                 }
             }
 
             this.symbols = symbols;
-            this.width = width;
-            this.height = height;
+            this.width = symbols.getWidth();
+            this.height = symbols.getHeight();
         }
 
         public Reflection findSmudgedReflection() {
@@ -121,7 +156,7 @@ public class Day13 implements Solution {
                         break;
                     }
 
-                    if (!matches(x - w - 1, 0, x + w, 0, 1, height)) {
+                    if (!symbols.column(x - w - 1).contentEquals(symbols.column(x + w))) {
                         matches = false;
                         break;
                     }
@@ -146,7 +181,7 @@ public class Day13 implements Solution {
                         break;
                     }
 
-                    if (!matches(0, y - h - 1, 0, y + h, width, 1)) {
+                    if (!symbols.row(y - h - 1).contentEquals(symbols.row(y + h))) {
                         matches = false;
                         break;
                     }
@@ -160,24 +195,12 @@ public class Day13 implements Solution {
             return result.build();
         }
 
-        private boolean matches(int x1, int y1, int x2, int y2, int width, int height) {
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    if (getSymbol(x1 + x, y1 + y) != getSymbol(x2 + x, y2 + y)) {
-                        return false;
-                    }
-                }
-            }
-
-            return true;
-        }
-
         public char getSymbol(int x, int y) {
-            return symbols[x + y * width];
+            return symbols.getChar(x, y);
         }
 
         public void setSymbol(int x, int y, char symbol) {
-            symbols[x + y * width] = symbol;
+            symbols.set(x, y, symbol);
         }
 
         public void smudgeSymbol(int x, int y) {
@@ -194,19 +217,7 @@ public class Day13 implements Solution {
 
         @Override
         public String toString() {
-            StringBuilder sb = new StringBuilder(width * height + height - 1);
-
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    char symbol = getSymbol(x, y);
-                    sb.append(symbol);
-                }
-                if (y != height - 1) {
-                    sb.append('\n');
-                }
-            }
-
-            return sb.toString();
+            return symbols.toString();
         }
     }
 
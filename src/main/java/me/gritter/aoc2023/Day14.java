@@ -1,10 +1,10 @@
 package me.gritter.aoc2023;
 
+import me.gritter.aoc2023.collections.IntArrayList;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Objects;
-import java.util.stream.Collectors;
 
 public class Day14 implements Solution {
 
@@ -15,72 +15,88 @@ public class Day14 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        var dish = loadMirrorDish(file);
-        dish.tiltNorth();
+        try (var dish = Metrics.current().phase("parse", () -> loadMirrorDish(file))) {
+            return Metrics.current().phase("solve", () -> {
+                dish.tiltNorth();
 
-        return dish.calculateTotalLoad();
+                return dish.calculateTotalLoad();
+            });
+        }
     }
 
     @Override
     public long solution_star2(String file) {
-        var dish = loadMirrorDish(file);
+        try (var dish = Metrics.current().phase("parse", () -> loadMirrorDish(file))) {
+            return Metrics.current().phase("solve", () -> calculateLoadAfterCycles(dish));
+        }
+    }
 
-        List<MirrorDish> states = new ArrayList<>();
+    private long calculateLoadAfterCycles(MirrorDish dish) {
+        // Cycle index of every state seen, keyed by its content hash, and the rounded rocks and total load after every
+        // cycle. Hashes can collide, so a repeat is only accepted if the rocks are in the same positions.
+        MemoCache seen = new MemoCache("day14.memo"); // Unbounded: evicting a state could hide the repeat
+        List<int[]> states = new ArrayList<>();
+        List<Long> loads = new ArrayList<>();
         int repeatStartIndex = -1;
 
+        SolveContext context = SolveContext.current();
         while (repeatStartIndex == -1) {
+            context.checkpoint();
+
             dish.tiltNorth();
             dish.tiltWest();
             dish.tiltSouth();
             dish.tiltEast();
 
-            var dishCopy = dish.copy();
-            if (states.contains(dishCopy)) {
-                repeatStartIndex = states.indexOf(dishCopy);
-            } else {
-                states.add(dishCopy);
+            long hash = dish.contentHash();
+            int[] state = dish.getRoundedRocks();
+            repeatStartIndex = (int) seen.get(hash, -1);
+            if (repeatStartIndex != -1 && !Arrays.equals(states.get(repeatStartIndex), state)) {
+                repeatStartIndex = indexOf(states, state);
+            }
+            if (repeatStartIndex == -1) {
+                seen.put(hash, loads.size());
+                states.add(state);
+                loads.add(dish.calculateTotalLoad());
             }
         }
 
-        int repeatingLength = states.size() - repeatStartIndex;
+        seen.publish(Metrics.current());
+
+        int repeatingLength = loads.size() - repeatStartIndex;
 
         int n = 1000000000 - 1; // Convert from cycles to index (-1)
         int index = repeatStartIndex + (n - repeatStartIndex) % repeatingLength;
-        MirrorDish state = states.get(index);
 
-        return state.calculateTotalLoad();
+        return loads.get(index);
     }
 
-    private MirrorDish loadMirrorDish(String file) {
-        List<String> lines = Utils.readLines(file).collect(Collectors.toList());
-
-        int width = lines.get(0).length();
-        int height = lines.size();
-        char[] symbols = new char[width * height];
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                symbols[x + y * width] = lines.get(y).charAt(x);
+    private static int indexOf(List<int[]> states, int[] state) {
+        for (int i = 0; i < states.size(); i++) {
+            if (Arrays.equals(states.get(i), state)) {
+                return i;
             }
         }
 
-        return new MirrorDish(symbols, width, height);
+        return -1;
+    }
+
+    private MirrorDish loadMirrorDish(String file) {
+        // The dish is tilted in place, the cache hands out a (copy-on-write) snapshot of the parsed grid. Large grids
+        // are stored off-heap, the solutions close the dish to free its copy right away.
+        return new MirrorDish(ParseCache.shared().get("day14-dish", file, f -> Grid.of(Utils.mapGrid(f))));
     }
 
-    private static class MirrorDish {
+    private static class MirrorDish implements AutoCloseable {
 
-        private final char[] symbols;
+        private final Grid symbols;
         private final int width;
         private final int height;
 
-        public MirrorDish(char[] symbols, int width, int height) {
-            if (symbols.length != width * height) {
-                throw new IllegalArgumentException();
-            }
-
+        public MirrorDish(Grid symbols) {
             this.symbols = symbols;
-            this.width = width;
-            this.height = height;
+            this.width = symbols.getWidth();
+            this.height = symbols.getHeight();
         }
 
         public void tiltNorth() {
@@ -137,8 +153,8 @@ public class Day14 implements Solution {
             }
         }
 
-        public int calculateTotalLoad() {
-            int totalLoad = 0;
+        public long calculateTotalLoad() {
+            long totalLoad = 0;
 
             for (int y = 0; y < height; y++) {
                 int loadPerStone = height - y;
@@ -152,34 +168,40 @@ public class Day14 implements Solution {
             return totalLoad;
         }
 
+        /**
+         * Returns the (ascending) cell indices of the rounded rocks, which identify the state of the dish.
+         */
+        public int[] getRoundedRocks() {
+            IntArrayList rocks = new IntArrayList();
+            for (int i = 0; i < symbols.size(); i++) {
+                if (symbols.getChar(i) == 'O') {
+                    rocks.add(i);
+                }
+            }
+
+            return rocks.toArray();
+        }
+
         public char getSymbol(int x, int y) {
-            return symbols[x + y * width];
+            return symbols.getChar(x, y);
         }
 
         public void setSymbol(int x, int y, char symbol) {
-            symbols[x + y * width] = symbol;
+            symbols.set(x, y, symbol);
         }
 
-        public MirrorDish copy() {
-            return new MirrorDish(Arrays.copyOf(symbols, symbols.length), width, height);
+        public long contentHash() {
+            return symbols.contentHash();
         }
 
         @Override
-        public String toString() {
-            StringBuilder sb = new StringBuilder(width * height + height - 1);
-
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    char symbol = getSymbol(x, y);
-                    sb.append(symbol);
-                }
-
-                if (y != height - 1) {
-                    sb.append('\n');
-                }
-            }
+        public void close() {
+            symbols.close();
+        }
 
-            return sb.toString();
+        @Override
+        public String toString() {
+            return symbols.toString();
         }
 
         @Override
@@ -187,14 +209,12 @@ public class Day14 implements Solution {
             if (this == o) return true;
             if (o == null || getClass() != o.getClass()) return false;
             MirrorDish that = (MirrorDish) o;
-            return width == that.width && height == that.height && Arrays.equals(symbols, that.symbols);
+            return symbols.equals(that.symbols);
         }
 
         @Override
         public int hashCode() {
-            int result = Objects.hash(width, height);
-            result = 31 * result + Arrays.hashCode(symbols);
-            return result;
+            return symbols.hashCode();
         }
     }
 }
@@ -13,20 +13,28 @@ public class Day15 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        int sum = 0;
-        String[] parts = Utils.readFile(file).split(",");
-        for (String part : parts) {
-            sum += hash(part);
-        }
+        String[] parts = Metrics.current().phase("parse", () -> Utils.readFile(file).split(","));
+
+        return Metrics.current().phase("solve", () -> {
+            long sum = 0;
+            for (String part : parts) {
+                sum += hash(part);
+            }
 
-        return sum;
+            return sum;
+        });
     }
 
     @Override
     public long solution_star2(String file) {
+        String[] parts = Metrics.current().phase("parse", () -> Utils.readFile(file).split(","));
+
+        return Metrics.current().phase("solve", () -> calculateFocusingPower(parts));
+    }
+
+    private long calculateFocusingPower(String[] parts) {
         AocHashMap map = new AocHashMap();
 
-        String[] parts = Utils.readFile(file).split(",");
         for (String part : parts) {
             if (part.contains("=")) {
                 String label = substringBefore(part, "=");
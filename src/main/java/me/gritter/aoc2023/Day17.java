@@ -1,11 +1,13 @@
 package me.gritter.aoc2023;
 
-import java.util.*;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import me.gritter.aoc2023.graph.BucketQueue;
+import me.gritter.aoc2023.graph.GraphSearch;
+import me.gritter.aoc2023.graph.IntGraph;
 
 public class Day17 implements Solution {
 
+    private static final int MAX_HEAT = 9;
+
     public static void main(String[] args) {
         Solution solution = new Day17();
         System.out.println(solution.solution_star2("day17-puzzle.txt"));
@@ -13,278 +15,168 @@ public class Day17 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        var heatMap = loadHeatMap(file, -1, 3);
-        return solution(heatMap);
+        try (var heatMap = Metrics.current().phase("parse", () -> loadHeatMap(file, -1, 3))) {
+            return Metrics.current().phase("solve", () -> solution(heatMap));
+        }
     }
 
     @Override
     public long solution_star2(String file) {
-        var heatMap = loadHeatMap(file, 4, 10);
-        return solution(heatMap);
+        try (var heatMap = Metrics.current().phase("parse", () -> loadHeatMap(file, 4, 10))) {
+            return Metrics.current().phase("solve", () -> solution(heatMap));
+        }
     }
 
     private long solution(HeatMap heatMap) {
-        var start = new Point(0, 0);
-        var end = new Point(heatMap.getWidth() - 1, heatMap.getHeight() - 1);
-
-        return dijkstra(heatMap, start, end);
-    }
-
-    // TODO: Optimize (solution is really slow - should probably use a heap / priority queue)
-    private int dijkstra(HeatMap heatMap, Point start, Point end) {
-        Node startNode = new Node(heatMap, start, new Point(0, 0), 1);
-
-        Map<Node, Integer> nodeCostMap = new HashMap<>();
-        nodeCostMap.put(startNode, 0);
-
-        Collection<Node> visited = new HashSet<>();
-
-        Node currentNode = startNode;
-
-        int step = 0;
-        while (true) {
-            int currentNodeCost = nodeCostMap.get(currentNode);
-            for (Node neighbor : currentNode.calculateNeighbors().collect(Collectors.toSet())) {
-                if (!heatMap.isInBounds(neighbor.getLocation()) || visited.contains(neighbor)) {
-                    continue;
-                }
-
-                int neighborCost = currentNodeCost + heatMap.getValue(neighbor.getLocation());
-                if (neighborCost < nodeCostMap.getOrDefault(neighbor, Integer.MAX_VALUE)) {
-                    nodeCostMap.put(neighbor, neighborCost);
-                }
-
-                if (neighbor.canStop() && neighbor.getLocation().equals(end)) {
-                    return neighborCost;
-                }
-            }
-
-            nodeCostMap.remove(currentNode);
-            visited.add(currentNode);
-
-            currentNode = null;
-            int minCost = Integer.MAX_VALUE;
-            for (Map.Entry<Node, Integer> entry : nodeCostMap.entrySet()) {
-                if (entry.getValue() < minCost) {
-                    currentNode = entry.getKey();
-                    minCost = entry.getValue();
-                }
-            }
+        // The heuristic changes by at most MAX_HEAT per step, so f-costs stay within 2 * MAX_HEAT of the minimum
+        var path = GraphSearch.aStar(heatMap, heatMap.getStart(), heatMap::isEnd, heatMap::estimateCostToEnd,
+                new BucketQueue(2 * MAX_HEAT));
 
-            if (step++ % 5000 == 0) {
-                System.out.println("step = " + step);
-                System.out.println("visited.size() = " + visited.size());
-                System.out.println("nodeCostMap.size() = " + nodeCostMap.size());
-            }
+        Metrics.current().add("day17.steps", path.getSettledCount());
+        if (!path.isFound()) {
+            throw new IllegalStateException("The end can't be reached.");
         }
+
+        return path.getCost();
     }
 
     private HeatMap loadHeatMap(String file, int minStraightDistance, int maxStraightDistance) {
-        List<String> lines = Utils.readLines(file).collect(Collectors.toList());
-
-        int width = lines.get(0).length();
-        int height = lines.size();
-        int[] values = new int[width * height];
-
-        for (int y = 0; y < height; y++) {
-            for (int x = 0; x < width; x++) {
-                char ch = lines.get(y).charAt(x);
-                int value = Integer.parseInt(String.valueOf(ch));
-                values[x + y * width] = value;
-            }
-        }
-
-        return new HeatMap(values, width, height, minStraightDistance, maxStraightDistance);
+        // The cache hands out a snapshot of the parsed values, which the heat map frees when it's closed
+        Grid values = ParseCache.shared().get("day17-heat-map", file, this::parseHeatValues);
+        return new HeatMap(values, minStraightDistance, maxStraightDistance);
     }
 
-    private static class Node implements Comparable<Node> {
+    private Grid parseHeatValues(String file) {
+        Grid values = Grid.of(Utils.mapGrid(file));
 
-        private final HeatMap heatMap;
-        private final Point location;
-        private final Point direction; // dir from previous to this node
-        private final int straightDistance;
-
-        private int cost = Integer.MAX_VALUE;
-
-        public Node(HeatMap heatMap, Point location, Point direction, int straightDistance) {
-            this.heatMap = heatMap;
-            this.location = location;
-            this.direction = direction;
-            this.straightDistance = straightDistance;
-        }
-
-        public boolean canStop() {
-            return !heatMap.hasMinStraightDistance() || straightDistance >= heatMap.getMinStraightDistance();
-        }
-
-        public Stream<Point> calculateNeighborDirections() {
-            if (direction.x == 0 && direction.y == 0) {
-                return Stream.of(
-                        new Point(-1, 0),
-                        new Point(0, -1),
-                        new Point(1, 0),
-                        new Point(0, 1)
-                );
-            } else if (heatMap.hasMinStraightDistance() && straightDistance < heatMap.getMinStraightDistance()) {
-                return Stream.of(
-                        direction
-                );
-            } else if (heatMap.hasMaxStraightDistance() && straightDistance < heatMap.getMaxStraightDistance()) {
-                return Stream.of(
-                        direction,
-                        direction.cw(),
-                        direction.ccw()
-                );
-            } else {
-                return Stream.of(
-                        direction.cw(),
-                        direction.ccw()
-                );
+        for (int i = 0; i < values.size(); i++) {
+            char ch = values.getChar(i);
+            if (ch < '0' || ch > '0' + MAX_HEAT) {
+                throw new IllegalArgumentException(String.valueOf(ch));
             }
-        }
-
-        public Stream<Node> calculateNeighbors() {
-            return calculateNeighborDirections()
-                    .map(direction -> {
-                        int neighborStraightDistance = 1;
-                        if (direction.equals(this.direction)) {
-                            // Going straight!
-                            neighborStraightDistance = straightDistance + 1;
-                        }
-
-                        return new Node(heatMap, location.add(direction), direction, neighborStraightDistance);
-                    });
-        }
 
-        public Point getLocation() {
-            return location;
+            values.set(i, (byte) (ch - '0'));
         }
 
-        public int getStraightDistance() {
-            return straightDistance;
-        }
-
-        public int getCost() {
-            return cost;
-        }
-
-        public void setCost(int cost) {
-            this.cost = cost;
-        }
-
-        @Override
-        public int compareTo(Node node) {
-            return this.cost - node.cost;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Node node = (Node) o;
-            return straightDistance == node.straightDistance && Objects.equals(location, node.location) && Objects.equals(direction, node.direction);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(location, direction, straightDistance);
-        }
+        return values;
     }
 
-    private static class HeatMap {
+    /**
+     * Graph of the crucible states. A state packs the grid index of the crucible, the direction it moved in (north,
+     * east, south, west) and the number of blocks it moved in that direction (1 to the maximum straight distance):
+     * {@code (index * 4 + direction) * maxStraightDistance + straightDistance - 1}. The start state follows all of
+     * these, it has moved 0 blocks and can leave in any direction.
+     */
+    private static class HeatMap implements IntGraph, AutoCloseable {
 
-        private final int[] values;
+        private static final int[] DX = {0, 1, 0, -1};
+        private static final int[] DY = {-1, 0, 1, 0};
+
+        private final Grid values;
         private final int width;
         private final int height;
         private final int maxStraightDistance;
         private final int minStraightDistance;
+        private final int minValue;
+        private final int start;
+
+        public HeatMap(Grid values, int minStraightDistance, int maxStraightDistance) {
+            if (maxStraightDistance < 1) {
+                throw new IllegalArgumentException("maxStraightDistance must be at least 1");
+            }
 
-        public HeatMap(int[] values, int width, int height, int minStraightDistance, int maxStraightDistance) {
-            if (values.length != width * height) {
-                throw new IllegalArgumentException();
+            long stateCount = (long) values.size() * 4 * maxStraightDistance + 1;
+            if (stateCount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("The heat map is too large: it has " + stateCount + " states.");
             }
 
             this.values = values;
-            this.width = width;
-            this.height = height;
+            this.width = values.getWidth();
+            this.height = values.getHeight();
             this.minStraightDistance = minStraightDistance;
             this.maxStraightDistance = maxStraightDistance;
-        }
+            this.start = (int) stateCount - 1;
 
-        public HeatMap(int width, int height, int minStraightDistance, int maxStraightDistance) {
-            this(new int[width * height], width, height, minStraightDistance, maxStraightDistance);
-        }
-
-        public boolean isInBounds(Point point) {
-            return point.x >= 0 && point.x < width && point.y >= 0 && point.y < height;
-        }
-
-        public int getValue(Point point) {
-            if (!isInBounds(point)) {
-                throw new IllegalArgumentException();
+            int minValue = MAX_HEAT;
+            for (int i = 0; i < values.size(); i++) {
+                minValue = Math.min(minValue, values.get(i));
             }
-
-            return values[point.x + point.y * width];
+            this.minValue = minValue;
         }
 
-        public int getWidth() {
-            return width;
+        public int getStart() {
+            return start;
         }
 
-        public int getHeight() {
-            return height;
+        @Override
+        public int stateCount() {
+            return start + 1;
         }
 
-        public boolean hasMinStraightDistance() {
-            return minStraightDistance > 0;
-        }
+        @Override
+        public void forEachEdge(int state, EdgeConsumer consumer) {
+            if (state == start) {
+                for (int direction = 0; direction < 4; direction++) {
+                    move(0, direction, 1, consumer);
+                }
+                return;
+            }
 
-        public int getMinStraightDistance() {
-            return minStraightDistance;
-        }
+            int index = index(state);
+            int direction = (state / maxStraightDistance) & 3;
+            int straightDistance = straightDistance(state);
 
-        public boolean hasMaxStraightDistance() {
-            return maxStraightDistance > 0;
+            if (straightDistance < maxStraightDistance) {
+                move(index, direction, straightDistance + 1, consumer);
+            }
+            if (canStop(straightDistance)) {
+                move(index, (direction + 1) & 3, 1, consumer);
+                move(index, (direction + 3) & 3, 1, consumer);
+            }
         }
 
-        public int getMaxStraightDistance() {
-            return maxStraightDistance;
+        private void move(int index, int direction, int straightDistance, EdgeConsumer consumer) {
+            int x = values.x(index) + DX[direction];
+            int y = values.y(index) + DY[direction];
+            if (x >= 0 && x < width && y >= 0 && y < height) {
+                int target = values.index(x, y);
+                consumer.accept((target * 4 + direction) * maxStraightDistance + straightDistance - 1,
+                        values.get(target));
+            }
         }
-    }
-
-    private static class Point {
 
-        public final int x;
-        public final int y;
+        public boolean isEnd(int state) {
+            if (state == start) {
+                return values.size() == 1 && canStop(0);
+            }
 
-        public Point(int x, int y) {
-            this.x = x;
-            this.y = y;
+            return index(state) == values.size() - 1 && canStop(straightDistance(state));
         }
 
-        public Point add(Point delta) {
-            return new Point(x + delta.x, y + delta.y);
+        /**
+         * Lower bound of the heat loss from {@code state} to the end: every remaining block costs at least the
+         * lowest heat value.
+         */
+        public int estimateCostToEnd(int state) {
+            int index = state == start ? 0 : index(state);
+            return (width - 1 - values.x(index) + height - 1 - values.y(index)) * minValue;
         }
 
-        public Point cw() {
-            return new Point(-y, x);
+        private int index(int state) {
+            return state / (4 * maxStraightDistance);
         }
 
-        public Point ccw() {
-            return new Point(y, -x);
+        private int straightDistance(int state) {
+            return state % maxStraightDistance + 1;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Point point = (Point) o;
-            return x == point.x && y == point.y;
+        private boolean canStop(int straightDistance) {
+            return minStraightDistance <= 0 || straightDistance >= minStraightDistance;
         }
 
         @Override
-        public int hashCode() {
-            return Objects.hash(x, y);
+        public void close() {
+            values.close();
         }
     }
 }
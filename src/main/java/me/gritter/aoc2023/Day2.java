@@ -1,21 +1,15 @@
 package me.gritter.aoc2023;
 
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import me.gritter.aoc2023.collections.IntArrayList;
 
-import static java.lang.Integer.parseInt;
-import static org.apache.commons.lang3.StringUtils.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 
 public class Day2 implements Solution {
 
-    private static final Map<String, Integer> MAX_COLORS = Map.of(
-            "red", 12,
-            "green", 13,
-            "blue", 14
-    );
+    private static final int[] MAX_COLORS = Color.amounts(12, 13, 14);
 
     public static void main(String[] args) {
         Solution solution = new Day2();
@@ -24,130 +18,446 @@ public class Day2 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        return Utils.readLines(file)
-                .map(this::parseGame)
-                .filter(Game::isPossible)
-                .mapToInt(Game::getId)
-                .sum();
+        if (!Utils.isMapped(file)) {
+            return streamGames(file).getStar1();
+        }
+
+        Games games = Metrics.current().phase("parse", () -> loadGames(file));
+        return Metrics.current().phase("solve", () -> sumPossibleIds(games));
     }
 
     @Override
     public long solution_star2(String file) {
-        return Utils.readLines(file)
-                .map(this::parseGame)
-                .map(Game::getMinimumRequiredSet)
-                .mapToInt(GameSet::getPower)
-                .sum();
+        if (!Utils.isMapped(file)) {
+            return streamGames(file).getStar2();
+        }
+
+        Games games = Metrics.current().phase("parse", () -> loadGames(file));
+        return Metrics.current().phase("solve", () -> sumPowers(games));
+    }
+
+    @Override
+    public Answers solveBoth(String file) {
+        if (!Utils.isMapped(file)) {
+            return streamGames(file);
+        }
+
+        Games games = Metrics.current().phase("parse", () -> loadGames(file));
+        return Metrics.current().phase("solve", () -> new Answers(sumPossibleIds(games), sumPowers(games)));
     }
 
-    private Game parseGame(String gameStr) {
-        int id = parseInt(substringBetween(gameStr, "Game ", ": "));
+    private static long sumPossibleIds(Games games) {
+        long sum = 0;
+        for (int game = 0; game < games.size(); game++) {
+            if (games.isPossible(game, MAX_COLORS)) {
+                sum += games.getId(game);
+            }
+        }
+
+        return sum;
+    }
 
-        String setsStr = substringAfter(gameStr, ": ");
-        Collection<GameSet> sets = Stream.of(setsStr.split("; "))
-                .map(this::parseSet)
-                .collect(Collectors.toList());
+    private static long sumPowers(Games games) {
+        long sum = 0;
+        for (int game = 0; game < games.size(); game++) {
+            sum += games.getPower(game);
+        }
 
-        return new Game(id, sets);
+        return sum;
     }
 
-    private GameSet parseSet(String setStr) {
-        Map<String, Integer> set = new HashMap<>();
-        for (String cube : setStr.split(", ")) {
-            int amount = parseInt(substringBefore(cube, " "));
-            String color = substringAfter(cube, " ");
+    /**
+     * Sums both answers while streaming the games, for inputs which can't be memory-mapped: caching their games would
+     * keep the whole input on the heap.
+     */
+    private Answers streamGames(String file) {
+        long[] sums = new long[2];
 
-            if (!MAX_COLORS.containsKey(color)) {
-                throw new IllegalStateException();
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            for (Iterator<List<int[]>> batches = Utils.parseBatches(lines, Day2::parseGame); batches.hasNext(); ) {
+                List<int[]> games = batches.next();
+                Metrics.current().phase("solve", () -> {
+                    for (int[] game : games) {
+                        if (Games.isPossible(game, 0, MAX_COLORS)) {
+                            sums[0] += game[Color.VALUES.length];
+                        }
+
+                        sums[1] += Games.getPower(game, 0);
+                    }
+                });
             }
+        }
+
+        return new Answers(sums[0], sums[1]);
+    }
+
+    /**
+     * Parses a game into the maxima of the colors (indexed by ordinal), followed by its id.
+     */
+    private static int[] parseGame(String line) {
+        int[] game = new int[Color.VALUES.length + 1];
+        game[Color.VALUES.length] = Games.parse(line, game);
+        return game;
+    }
+
+    /**
+     * Returns an index of the games in {@code file}, to answer many queries for different limits.
+     */
+    public GameIndex index(String file) {
+        return ParseCache.shared().get("day2-index", file, f -> GameIndex.of(loadGames(f)));
+    }
+
+    private Games loadGames(String file) {
+        return ParseCache.shared().get("day2-games", file, Day2::parseGames);
+    }
+
+    static Games parseGames(String file) {
+        Games.Builder games = new Games.Builder();
 
-            set.put(color, amount);
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            for (Iterator<String> iterator = lines.iterator(); iterator.hasNext(); ) {
+                games.add(iterator.next());
+            }
         }
 
-        return new GameSet(set);
+        return games.build();
     }
 
-    private static class Game {
-        private final int id;
-        private final Collection<GameSet> sets;
+    public enum Color {
+
+        RED("red"),
+        GREEN("green"),
+        BLUE("blue");
+
+        private static final Color[] VALUES = values();
+
+        private final String name;
 
-        public Game(int id, Collection<GameSet> sets) {
-            this.id = id;
-            this.sets = sets;
+        Color(String name) {
+            this.name = name;
         }
 
-        public int getId() {
-            return id;
+        public String getName() {
+            return name;
         }
 
-        public Collection<GameSet> getSets() {
-            return sets;
+        /**
+         * Returns the amounts of every color, indexed by ordinal.
+         */
+        public static int[] amounts(int red, int green, int blue) {
+            int[] amounts = new int[VALUES.length];
+            amounts[RED.ordinal()] = red;
+            amounts[GREEN.ordinal()] = green;
+            amounts[BLUE.ordinal()] = blue;
+            return amounts;
         }
 
-        public boolean isPossible() {
-            return sets.stream().allMatch(GameSet::isPossible);
+        /**
+         * Consumes the name of a color from {@code scanner}.
+         */
+        public static Color consume(NumberScanner scanner) {
+            for (Color color : VALUES) {
+                if (scanner.consume(color.name)) {
+                    return color;
+                }
+            }
+
+            throw new IllegalStateException("Unknown color at position " + scanner.getPosition() + ".");
         }
+    }
 
-        public GameSet getMinimumRequiredSet() {
-            Map<String, Integer> minReqCubes = new HashMap<>();
-            for (GameSet set : this.sets) {
-                for (String color : set.getColors().keySet()) {
-                    int amount = set.getColors().get(color);
-                    if (amount > minReqCubes.getOrDefault(color, 0)) {
-                        minReqCubes.put(color, amount);
-                    }
+    /**
+     * Games stored column-wise: only the id of every game and the maximum amount of every color revealed in its sets
+     * are kept, in flat int arrays. A color which is never revealed has a maximum of 0. Games are immutable, they're
+     * built using a {@link Builder}.
+     */
+    public static class Games {
+
+        private static final int COLORS = Color.VALUES.length;
+
+        private final int[] ids;
+        private final int[] maxima;
+
+        private Games(int[] ids, int[] maxima) {
+            this.ids = ids;
+            this.maxima = maxima;
+        }
+
+        /**
+         * Parses a game into {@code maxima} (indexed by ordinal), and returns its id.
+         */
+        public static int parse(CharSequence line, int[] maxima) {
+            NumberScanner scanner = new NumberScanner(line);
+            int id = scanner.nextInt();
+            scanner.skipPast(':');
+
+            Arrays.fill(maxima, 0);
+            do {
+                int amount = scanner.nextInt();
+                scanner.skipWhitespace();
+
+                int color = Color.consume(scanner).ordinal();
+                maxima[color] = Math.max(maxima[color], amount);
+            } while (scanner.consume(",") || scanner.consume(";"));
+
+            return id;
+        }
+
+        /**
+         * Returns whether a game with the given maxima is possible with at most {@code limits} of every color.
+         */
+        public static boolean isPossible(int[] maxima, int offset, int[] limits) {
+            for (int color = 0; color < COLORS; color++) {
+                if (maxima[offset + color] > limits[color]) {
+                    return false;
                 }
             }
 
-            return new GameSet(minReqCubes);
+            return true;
+        }
+
+        /**
+         * Returns the product of the minimum amounts of the colors needed for a game with the given maxima, leaving out
+         * colors which are never revealed.
+         */
+        public static long getPower(int[] maxima, int offset) {
+            long power = 1;
+            for (int color = 0; color < COLORS; color++) {
+                if (maxima[offset + color] != 0) {
+                    power *= maxima[offset + color];
+                }
+            }
+
+            return power;
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public int getId(int game) {
+            return ids[game];
+        }
+
+        public int getMaximum(int game, Color color) {
+            return maxima[game * COLORS + color.ordinal()];
+        }
+
+        /**
+         * Returns whether every set of a game is possible with at most {@code limits} (indexed by ordinal) of every
+         * color.
+         */
+        public boolean isPossible(int game, int[] limits) {
+            return isPossible(maxima, game * COLORS, limits);
+        }
+
+        public long getPower(int game) {
+            return getPower(maxima, game * COLORS);
         }
 
         @Override
         public String toString() {
-            return "Game{" +
-                    "id=" + id +
-                    ", sets=" + sets +
+            return "Games{" +
+                    "ids=" + Arrays.toString(ids) +
+                    ", maxima=" + Arrays.toString(maxima) +
                     '}';
         }
+
+        public static class Builder {
+
+            private final IntArrayList ids = new IntArrayList();
+            private final IntArrayList maxima = new IntArrayList();
+            private final int[] game = new int[COLORS];
+
+            /**
+             * Parses a game and adds it.
+             */
+            public Builder add(CharSequence line) {
+                ids.add(parse(line, game));
+                for (int maximum : game) {
+                    maxima.add(maximum);
+                }
+
+                return this;
+            }
+
+            public Games build() {
+                return new Games(ids.toArray(), maxima.toArray());
+            }
+        }
     }
 
-    private static class GameSet {
-        private final Map<String, Integer> colors;
+    /**
+     * Sums the ids of the games possible with given limits for every color. The distinct maxima of every color are
+     * compressed to their rank, and a 3D prefix sum over the ranks answers a query using three binary searches. If the
+     * prefix sum would exceed the maximum table size, the games are sorted by their red maximum instead, and a query
+     * scans the games with few enough red cubes.
+     */
+    public static class GameIndex {
+
+        public static final int DEFAULT_MAX_TABLE_SIZE = 1 << 22;
+
+        private final int[] reds;
+        private final int[] greens;
+        private final int[] blues;
+
+        // Prefix sums, indexed by the number of distinct maxima of every color within the limits
+        private final long[] table;
+
+        // Games sorted by their red maximum, if there's no table
+        private final int[] sortedReds;
+        private final int[] sortedGreens;
+        private final int[] sortedBlues;
+        private final int[] sortedIds;
+
+        private GameIndex(Games games, int maxTableSize) {
+            reds = distinctMaxima(games, Color.RED);
+            greens = distinctMaxima(games, Color.GREEN);
+            blues = distinctMaxima(games, Color.BLUE);
+
+            long tableSize = (long) (reds.length + 1) * (greens.length + 1) * (blues.length + 1);
+            if (tableSize <= maxTableSize) {
+                table = new long[(int) tableSize];
+                for (int game = 0; game < games.size(); game++) {
+                    int red = Arrays.binarySearch(reds, games.getMaximum(game, Color.RED)) + 1;
+                    int green = Arrays.binarySearch(greens, games.getMaximum(game, Color.GREEN)) + 1;
+                    int blue = Arrays.binarySearch(blues, games.getMaximum(game, Color.BLUE)) + 1;
+                    table[cell(red, green, blue)] += games.getId(game);
+                }
+
+                accumulate();
+
+                sortedReds = null;
+                sortedGreens = null;
+                sortedBlues = null;
+                sortedIds = null;
+            } else {
+                table = null;
+
+                long[] order = new long[games.size()];
+                for (int game = 0; game < games.size(); game++) {
+                    order[game] = (long) games.getMaximum(game, Color.RED) << 32 | game;
+                }
+                Arrays.sort(order);
+
+                sortedReds = new int[order.length];
+                sortedGreens = new int[order.length];
+                sortedBlues = new int[order.length];
+                sortedIds = new int[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    int game = (int) order[i];
+                    sortedReds[i] = games.getMaximum(game, Color.RED);
+                    sortedGreens[i] = games.getMaximum(game, Color.GREEN);
+                    sortedBlues[i] = games.getMaximum(game, Color.BLUE);
+                    sortedIds[i] = games.getId(game);
+                }
+            }
+        }
 
-        public GameSet(Map<String, Integer> colors) {
-            this.colors = colors;
+        public static GameIndex of(Games games) {
+            return of(games, DEFAULT_MAX_TABLE_SIZE);
         }
 
-        public Map<String, Integer> getColors() {
-            return colors;
+        /**
+         * @param maxTableSize  maximum number of cells of the prefix sum, above which queries scan the games instead
+         */
+        public static GameIndex of(Games games, int maxTableSize) {
+            return new GameIndex(games, maxTableSize);
         }
 
-        public boolean isPossible() {
-            for (String color : colors.keySet()) {
-                int amount = colors.get(color);
-                int maxAmount = MAX_COLORS.get(color);
+        /**
+         * Returns the sum of the ids of the games possible with at most {@code red}, {@code green} and {@code blue}
+         * cubes.
+         */
+        public long sumOfPossibleIds(int red, int green, int blue) {
+            if (table != null) {
+                return table[cell(countAtMost(reds, red), countAtMost(greens, green), countAtMost(blues, blue))];
+            }
 
-                if (amount > maxAmount) {
-                    return false;
+            long sum = 0;
+            for (int i = 0, games = countAtMost(sortedReds, red); i < games; i++) {
+                if (sortedGreens[i] <= green && sortedBlues[i] <= blue) {
+                    sum += sortedIds[i];
                 }
             }
 
-            return true;
+            return sum;
+        }
+
+        public boolean hasTable() {
+            return table != null;
         }
 
-        public int getPower() {
-            int power = 1;
-            for (int amount : colors.values()) {
-                power *= amount;
+        private int cell(int red, int green, int blue) {
+            return (red * (greens.length + 1) + green) * (blues.length + 1) + blue;
+        }
+
+        private void accumulate() {
+            for (int red = 0; red <= reds.length; red++) {
+                for (int green = 0; green <= greens.length; green++) {
+                    for (int blue = 0; blue <= blues.length; blue++) {
+                        long sum = table[cell(red, green, blue)];
+                        if (red > 0) {
+                            sum += table[cell(red - 1, green, blue)];
+                        }
+                        if (green > 0) {
+                            sum += table[cell(red, green - 1, blue)];
+                        }
+                        if (blue > 0) {
+                            sum += table[cell(red, green, blue - 1)];
+                        }
+                        if (red > 0 && green > 0) {
+                            sum -= table[cell(red - 1, green - 1, blue)];
+                        }
+                        if (red > 0 && blue > 0) {
+                            sum -= table[cell(red - 1, green, blue - 1)];
+                        }
+                        if (green > 0 && blue > 0) {
+                            sum -= table[cell(red, green - 1, blue - 1)];
+                        }
+                        if (red > 0 && green > 0 && blue > 0) {
+                            sum += table[cell(red - 1, green - 1, blue - 1)];
+                        }
+                        table[cell(red, green, blue)] = sum;
+                    }
+                }
             }
+        }
 
-            return power;
+        private static int[] distinctMaxima(Games games, Color color) {
+            int[] maxima = new int[games.size()];
+            for (int game = 0; game < games.size(); game++) {
+                maxima[game] = games.getMaximum(game, color);
+            }
+
+            return Arrays.stream(maxima).sorted().distinct().toArray();
+        }
+
+        /**
+         * Returns the number of values in sorted {@code values} which are at most {@code limit}.
+         */
+        private static int countAtMost(int[] values, int limit) {
+            int low = 0;
+            int high = values.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (values[middle] <= limit) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+
+            return low;
         }
 
         @Override
         public String toString() {
-            return "GameSet{" +
-                    "colors=" + colors +
+            return "GameIndex{" +
+                    "reds=" + reds.length +
+                    ", greens=" + greens.length +
+                    ", blues=" + blues.length +
+                    ", hasTable=" + hasTable() +
                     '}';
         }
     }
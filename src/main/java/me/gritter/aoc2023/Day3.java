@@ -1,11 +1,10 @@
 package me.gritter.aoc2023;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 import java.util.stream.Stream;
 
-import static java.util.Objects.requireNonNull;
-
 public class Day3 implements Solution {
 
     public static void main(String[] args) {
@@ -15,42 +14,47 @@ public class Day3 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        var schematic = parseSchematic(file);
-
-        return schematic.findNumbers()
-                .filter(range -> range.adjacent().map(schematic::get).flatMap(Optional::stream).anyMatch(this::isSymbol))
-                .map(schematic::getStringRepresentation)
-                .mapToInt(Integer::parseInt)
-                .sum();
+        try (var schematic = Metrics.current().phase("parse", () -> parseSchematic(file))) {
+            return Metrics.current().phase("solve", () -> schematic.findNumbers()
+                    .filter(number -> schematic.anyAdjacent(number, index -> isSymbol(schematic.get(index))))
+                    .mapToLong(PartNumber::getValue)
+                    .sum());
+        }
     }
 
     @Override
     public long solution_star2(String file) {
-        var schematic = parseSchematic(file);
-
-        return schematic.getBounds()
-                .toPointStream()
-                .filter(point -> schematic.get(point).map(this::isStar).orElse(false))
-                .map(schematic::calculateGearRatio)
-                .flatMap(Optional::stream)
-                .mapToInt(i -> i)
-                .sum();
+        try (var schematic = Metrics.current().phase("parse", () -> parseSchematic(file))) {
+            return Metrics.current().phase("solve", () -> sumGearRatios(schematic));
+        }
     }
 
-    private Schematic parseSchematic(String file) {
-        int width = Utils.readLines(file)
-                .findFirst()
-                .map(String::length)
-                .orElseThrow();
+    private long sumGearRatios(Schematic schematic) {
+        // Per star: the amount of adjacent numbers, and the product of those numbers.
+        int[] adjacentNumbers = new int[schematic.size()];
+        long[] gearRatios = new long[schematic.size()];
+        Arrays.fill(gearRatios, 1);
+
+        schematic.findNumbers()
+                .forEach(number -> schematic.forEachAdjacent(number, index -> {
+                    if (isStar(schematic.get(index))) {
+                        adjacentNumbers[index]++;
+                        gearRatios[index] *= number.getValue();
+                    }
+                }));
 
-        List<Character> schematic = new ArrayList<>();
-        Utils.readLines(file)
-                .flatMapToInt(String::chars)
-                .forEach(c -> schematic.add((char) c));
+        long sum = 0;
+        for (int i = 0; i < adjacentNumbers.length; i++) {
+            if (adjacentNumbers[i] == 2) {
+                sum += gearRatios[i];
+            }
+        }
 
-        int height = schematic.size() / width;
+        return sum;
+    }
 
-        return new Schematic(schematic, width, height);
+    private Schematic parseSchematic(String file) {
+        return ParseCache.shared().get("day3-schematic", file, f -> new Schematic(Grid.of(Utils.mapGrid(f))));
     }
 
     private boolean isSymbol(char c) {
@@ -61,54 +65,53 @@ public class Day3 implements Solution {
         return c == '*';
     }
 
-    public static class Schematic {
+    public static class Schematic implements ParseCache.Snapshottable<Schematic>, AutoCloseable {
 
-        private final List<Character> schematic;
-        private final int width;
-        private final int height;
-        private final Range bounds;
+        private final Grid grid;
 
-        public Schematic(List<Character> schematic, int width, int height) {
-            if (schematic.size() != width * height) {
-                throw new IllegalStateException();
-            }
+        public Schematic(Grid grid) {
+            this.grid = grid;
+        }
 
-            this.schematic = schematic;
-            this.width = width;
-            this.height = height;
-            this.bounds = new Range(new Point(0, 0), new Point(width - 1, height - 1));
+        @Override
+        public Schematic snapshot() {
+            return new Schematic(grid.snapshot());
         }
 
-        public Optional<Character> get(Point p) {
-            if (!bounds.inRange(p)) {
-                return Optional.empty();
-            }
+        @Override
+        public void close() {
+            grid.close();
+        }
 
-            return Optional.of(schematic.get(p.y * width + p.x));
+        public char get(int index) {
+            return grid.getChar(index);
         }
 
-        public Stream<Range> findNumbers() {
-            Stream.Builder<Range> builder = Stream.builder();
+        public int size() {
+            return grid.size();
+        }
+
+        public Stream<PartNumber> findNumbers() {
+            Stream.Builder<PartNumber> builder = Stream.builder();
 
-            for (int y = 0; y < height; y++) {
-                Point start = null;
-                Point end = null;
+            for (int y = 0; y < grid.getHeight(); y++) {
+                int start = -1;
+                int value = 0;
 
-                for (int x = 0; x <= width; x++) {
-                    Point p = new Point(x, y);
-                    char ch = get(p).orElse('.');
+                for (int x = 0; x <= grid.getWidth(); x++) {
+                    char ch = x < grid.getWidth() ? grid.getChar(x, y) : '.';
 
                     if (Character.isDigit(ch)) {
-                        if (start == null) {
-                            start = p;
+                        if (start == -1) {
+                            start = x;
                         }
 
-                        end = p;
-                    } else if (start != null) {
-                        builder.add(new Range(start, end));
+                        value = value * 10 + (ch - '0');
+                    } else if (start != -1) {
+                        builder.add(new PartNumber(y, start, x - 1, value));
 
-                        start = null;
-                        end = null;
+                        start = -1;
+                        value = 0;
                     }
                 }
             }
@@ -116,166 +119,81 @@ public class Day3 implements Solution {
             return builder.build();
         }
 
-        public String getStringRepresentation(Range range) {
-            return range.toPointStream()
-                    .map(this::get)
-                    .flatMap(Optional::stream)
-                    .map(Object::toString)
-                    .collect(Collectors.joining());
-        }
-
-        public Optional<Integer> calculateGearRatio(Point commonNeighbor) {
-            var nums = findNumbers()
-                    .filter(r -> r.adjacent().anyMatch(commonNeighbor::equals))
-                    .map(this::getStringRepresentation)
-                    .map(Integer::parseInt)
-                    .collect(Collectors.toList());
+        /**
+         * Calls {@code consumer} with the index of every cell surrounding the number.
+         */
+        public void forEachAdjacent(PartNumber number, IntConsumer consumer) {
+            int minX = Math.max(0, number.getMinX() - 1);
+            int maxX = Math.min(grid.getWidth() - 1, number.getMaxX() + 1);
+            int minY = Math.max(0, number.getY() - 1);
+            int maxY = Math.min(grid.getHeight() - 1, number.getY() + 1);
 
-            if (nums.size() != 2) {
-                return Optional.empty();
+            for (int y = minY; y <= maxY; y++) {
+                for (int x = minX; x <= maxX; x++) {
+                    if (y != number.getY() || x < number.getMinX() || x > number.getMaxX()) {
+                        consumer.accept(grid.index(x, y));
+                    }
+                }
             }
+        }
 
-            return Optional.of(nums.stream().reduce(1, (a, b) -> a * b));
+        public boolean anyAdjacent(PartNumber number, IntPredicate predicate) {
+            boolean[] found = new boolean[1];
+            forEachAdjacent(number, index -> found[0] |= predicate.test(index));
+            return found[0];
         }
 
         public int getWidth() {
-            return width;
+            return grid.getWidth();
         }
 
         public int getHeight() {
-            return height;
-        }
-
-        public Range getBounds() {
-            return bounds;
+            return grid.getHeight();
         }
 
         @Override
         public String toString() {
-            StringBuilder sb = new StringBuilder(width * height + height - 1);
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    sb.append(this.get(new Point(x, y)).orElseThrow());
-                }
-
-                if (y != height - 1) {
-                    sb.append('\n');
-                }
-            }
-
-            return sb.toString();
+            return grid.toString();
         }
     }
 
-    public static class Point {
-
-        private static final Collection<Point> ADJACENT_DELTAS = Set.of(
-                new Point(-1, -1),
-                new Point(0, -1),
-                new Point(1, -1),
-                new Point(1, 0),
-                new Point(1, 1),
-                new Point(0, 1),
-                new Point(-1, 1),
-                new Point(-1, 0)
-        );
+    public static class PartNumber {
 
-        public final int x, y;
+        private final int y;
+        private final int minX;
+        private final int maxX;
+        private final int value;
 
-        public Point(int x, int y) {
-            this.x = x;
+        public PartNumber(int y, int minX, int maxX, int value) {
             this.y = y;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.value = value;
         }
 
-        public Point add(Point other) {
-            return new Point(this.x + other.x, this.y + other.y);
+        public int getY() {
+            return y;
         }
 
-        public Stream<Point> adjacent() {
-            return ADJACENT_DELTAS.stream()
-                    .map(this::add);
+        public int getMinX() {
+            return minX;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Point point = (Point) o;
-            return x == point.x && y == point.y;
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(x, y);
-        }
-
-        @Override
-        public String toString() {
-            return "Point{" +
-                    "x=" + x +
-                    ", y=" + y +
-                    '}';
-        }
-    }
-
-    public static class Range {
-
-        public final Point min;
-        public final Point max;
-
-        public Range(Point min, Point max) {
-            this.min = requireNonNull(min);
-            this.max = requireNonNull(max);
-        }
-
-        public boolean inRange(Point point) {
-            return point.x >= min.x &&
-                    point.y >= min.y &&
-                    point.x <= max.x &&
-                    point.y <= max.y;
+        public int getMaxX() {
+            return maxX;
         }
 
-        public boolean notInRange(Point point) {
-            return !inRange(point);
-        }
-
-        public Stream<Point> toPointStream() {
-            Stream.Builder<Point> builder = Stream.builder();
-
-            for (int y = min.y; y <= max.y; y++) {
-                for (int x = min.x; x <= max.x; x++) {
-                    builder.add(new Point(x, y));
-                }
-            }
-
-            return builder.build();
-        }
-
-        public Stream<Point> adjacent() { // TODO: Optimize
-            return toPointStream()
-                    .flatMap(Point::adjacent)
-                    .filter(this::notInRange)
-                    .distinct();
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            Range range = (Range) o;
-            return Objects.equals(min, range.min) && Objects.equals(max, range.max);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(min, max);
+        public int getValue() {
+            return value;
         }
 
         @Override
         public String toString() {
-            return "Range{" +
-                    "min=" + min +
-                    ", max=" + max +
+            return "PartNumber{" +
+                    "y=" + y +
+                    ", minX=" + minX +
+                    ", maxX=" + maxX +
+                    ", value=" + value +
                     '}';
         }
     }
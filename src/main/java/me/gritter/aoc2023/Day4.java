@@ -1,14 +1,12 @@
 package me.gritter.aoc2023;
 
-import java.util.Collection;
+import me.gritter.aoc2023.collections.IntArrayDeque;
+import me.gritter.aoc2023.collections.IntHashSet;
+
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import static org.apache.commons.collections4.CollectionUtils.intersection;
-import static org.apache.commons.lang3.StringUtils.substringAfter;
-import static org.apache.commons.lang3.StringUtils.substringBetween;
-
 public class Day4 implements Solution {
 
     public static void main(String[] args) {
@@ -18,75 +16,107 @@ public class Day4 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        return Utils.readLines(file)
-                .map(this::parseScratchGame)
-                .mapToInt(ScratchGame::getScore)
-                .sum();
+        return countCards(file).getScore();
     }
 
     @Override
     public long solution_star2(String file) {
-        List<ScratchGame> games = Utils.readLines(file)
-                .map(this::parseScratchGame)
-                .collect(Collectors.toList());
+        return countCards(file).getCards();
+    }
 
-        int sum = 0;
-        for (int i = 0; i < games.size(); i++) {
-            ScratchGame game = games.get(i);
-            int matches = game.calculateMatches();
-            int amount = game.getAmount();
-            sum += amount;
-            for (int j = 0; j < matches; j++) {
-                if (i + j + 1 >= games.size()) break;
-                games.get(i + j + 1).increaseAmount(amount);
+    @Override
+    public Answers solveBoth(String file) {
+        CardCounter counter = countCards(file);
+        return new Answers(counter.getScore(), counter.getCards());
+    }
+
+    private CardCounter countCards(String file) {
+        CardCounter counter = new CardCounter();
+
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            for (Iterator<List<ScratchGame>> batches = Utils.parseBatches(lines, this::parseScratchGame);
+                 batches.hasNext(); ) {
+                List<ScratchGame> games = batches.next();
+                Metrics.current().phase("solve", () -> games.forEach(counter::accept));
             }
         }
 
-        return sum;
+        return counter;
     }
 
     private ScratchGame parseScratchGame(String game) {
-        String cardStr = substringBetween(game, ": ", " | ");
-        String numsStr = substringAfter(game, " | ");
+        NumberScanner scanner = new NumberScanner(game);
+        scanner.skipPast(':');
 
-        return new ScratchGame(
-                parseNumbers(cardStr),
-                parseNumbers(numsStr)
-        );
-    }
+        IntHashSet card = new IntHashSet();
+        while (!scanner.skipWhitespace().consume("|")) {
+            card.add(scanner.nextInt());
+        }
 
-    private Collection<Integer> parseNumbers(String string) {
-        return Stream.of(string.trim().split("\\s+"))
-                .map(Integer::parseInt)
-                .collect(Collectors.toSet());
+        IntHashSet numbers = new IntHashSet();
+        while (scanner.hasNext()) {
+            numbers.add(scanner.nextInt());
+        }
+
+        return new ScratchGame(card, numbers);
     }
 
-    public static class ScratchGame {
+    /**
+     * Counts the score and the number of cards while streaming the cards. Only the copies won for the upcoming cards
+     * are kept, so memory doesn't grow with the number of cards.
+     */
+    private static class CardCounter {
 
-        private int amount = 1;
+        // Copies won for the upcoming cards, the first element belongs to the next card.
+        private final IntArrayDeque wonCopies = new IntArrayDeque();
 
-        private final Collection<Integer> card;
-        private final Collection<Integer> numbers;
+        private long score;
+        private long cards;
 
-        public ScratchGame(Collection<Integer> card, Collection<Integer> numbers) {
-            this.card = card;
-            this.numbers = numbers;
+        public void accept(ScratchGame game) {
+            int matches = game.calculateMatches();
+            int amount = 1 + (wonCopies.isEmpty() ? 0 : wonCopies.pollFirst());
+
+            score += game.getScore();
+            cards += amount;
+
+            for (int j = 0; j < matches; j++) {
+                if (j < wonCopies.size()) {
+                    wonCopies.set(j, wonCopies.get(j) + amount);
+                } else {
+                    wonCopies.addLast(amount);
+                }
+            }
         }
 
-        public int getAmount() {
-            return amount;
+        public long getScore() {
+            return score;
         }
 
-        public void setAmount(int amount) {
-            this.amount = amount;
+        public long getCards() {
+            return cards;
         }
+    }
+
+    public static class ScratchGame {
 
-        public void increaseAmount(int amountDelta) {
-            this.amount += amountDelta;
+        private final IntHashSet card;
+        private final IntHashSet numbers;
+
+        public ScratchGame(IntHashSet card, IntHashSet numbers) {
+            this.card = card;
+            this.numbers = numbers;
         }
 
         public int calculateMatches() {
-            return intersection(card, numbers).size();
+            int[] matches = {0};
+            numbers.forEach(number -> {
+                if (card.contains(number)) {
+                    matches[0]++;
+                }
+            });
+
+            return matches[0];
         }
 
         public int getScore() {
@@ -1,14 +1,17 @@
 package me.gritter.aoc2023;
 
+import me.gritter.aoc2023.collections.LongArrayList;
+import me.gritter.aoc2023.collections.LongHashMap;
+
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import java.util.stream.LongStream;
-import java.util.stream.Stream;
 
-import static java.lang.Long.parseLong;
 import static org.apache.commons.lang3.StringUtils.*;
 
 /**
@@ -28,6 +31,8 @@ import static org.apache.commons.lang3.StringUtils.*;
  */
 public class Day5 implements Solution {
 
+    private static final long SEED_CHUNK_SIZE = 1 << 20;
+
     public static void main(String[] args) {
         Solution solution = new Day5();
         System.out.println(solution.solution_star2("day5-puzzle.txt"));
@@ -35,106 +40,122 @@ public class Day5 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        var almanac = parseGardenAlmanac(file);
+        var almanac = Metrics.current().phase("parse", () -> loadGardenAlmanac(file));
 
-        return Utils.readLines(file)
-                .filter(line -> line.startsWith("seeds: "))
-                .map(line -> substringAfter(line, "seeds: "))
-                .flatMapToLong(this::parseSeeds_star1)
+        return Metrics.current().phase("solve", () -> almanac.seeds()
                 .map(almanac::mapThroughAllCategories)
                 .min()
-                .orElseThrow();
+                .orElseThrow());
     }
 
     @Override
     public long solution_star2(String file) {
-        var almanac = parseGardenAlmanac(file);
+        var almanac = Metrics.current().phase("parse", () -> loadGardenAlmanac(file));
 
-        Collection<String> seedPairs = Utils.readLines(file)
-                .filter(line -> line.startsWith("seeds: "))
-                .map(line -> substringAfter(line, "seeds: "))
-                .flatMap(line -> patternMatchStream(line, Pattern.compile("\\d+ \\d+")))
-                .collect(Collectors.toList());
+        return Metrics.current().phase("solve", () -> findLowestLocation(almanac, almanac.getSeedRanges()));
+    }
 
-        final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
-        final AtomicLong runningThreads = new AtomicLong(seedPairs.size());
+    private long findLowestLocation(GardenAlmanac almanac, List<long[]> seedRanges) {
+        // Split the seed ranges into chunks, which balances the work over the threads and bounds the time between
+        // cancellation checks.
+        List<long[]> chunks = new ArrayList<>();
+        for (long[] seedRange : seedRanges) {
+            long start = seedRange[0];
+            long end = start + seedRange[1] - 1;
 
-        for (String seedPair : seedPairs) {
-            String[] parts = seedPair.split(" ");
-            if (parts.length != 2) {
-                throw new IllegalStateException();
+            for (long chunkStart = start; chunkStart < end; chunkStart += SEED_CHUNK_SIZE) {
+                chunks.add(new long[]{chunkStart, Math.min(end, chunkStart + SEED_CHUNK_SIZE)});
             }
+        }
+
+        final long totalSeeds = chunks.stream().mapToLong(chunk -> chunk[1] - chunk[0]).sum();
+        final Metrics metrics = Metrics.current();
+        final SolveContext context = SolveContext.current();
+        final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+        final AtomicLong seedsDone = new AtomicLong();
 
-            long start = parseLong(parts[0]);
-            long length = parseLong(parts[1]);
-            long end = start + length - 1;
+        metrics.add("day5.seed-ranges", seedRanges.size());
 
-            new Thread(() -> {
-                long localMinimum = LongStream.range(start, end)
-                        .map(almanac::mapThroughAllCategories)
-                        .min()
-                        .orElseThrow();
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long[] chunk : chunks) {
+                futures.add(executor.submit(() -> {
+                    context.checkpoint();
 
-                synchronized (min) {
-                    if (localMinimum < min.get()) {
-                        min.set(localMinimum);
+                    long localMinimum = Long.MAX_VALUE;
+                    for (long seed = chunk[0]; seed < chunk[1]; seed++) {
+                        localMinimum = Math.min(localMinimum, almanac.mapThroughAllCategories(seed));
                     }
-                }
 
-                synchronized (runningThreads) {
-                    runningThreads.decrementAndGet();
-                }
-            }).start();
-        }
+                    min.accumulateAndGet(localMinimum, Math::min);
 
-        while (runningThreads.get() > 0) {
-            System.out.println("runningThreads = " + runningThreads.get() + ", minimum = " + min.get());
+                    metrics.add("day5.seeds", chunk[1] - chunk[0]);
+                    context.progress(seedsDone.addAndGet(chunk[1] - chunk[0]), totalSeeds);
+                }));
+            }
 
-            try {
-                Thread.sleep(1000);
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
             }
-        }
 
-        System.out.println("All threads exited.");
-        System.out.println("minimum = " + min.get());
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.shutdownNow();
+        }
 
         return min.get();
     }
 
     public long solution_star2_single_threaded(String file) {
-        var almanac = parseGardenAlmanac(file);
+        var almanac = Metrics.current().phase("parse", () -> loadGardenAlmanac(file));
 
-        return Utils.readLines(file)
-                .filter(line -> line.startsWith("seeds: "))
-                .map(line -> substringAfter(line, "seeds: "))
-                .flatMapToLong(this::parseSeeds_star2)
+        // The seeds of the ranges are generated while solving
+        return Metrics.current().phase("solve", () -> almanac.getSeedRanges()
+                .stream()
+                .flatMapToLong(range -> LongStream.range(range[0], range[0] + range[1] - 1))
                 .map(almanac::mapThroughAllCategories)
                 .min()
-                .orElseThrow();
+                .orElseThrow());
+    }
+
+    private GardenAlmanac loadGardenAlmanac(String file) {
+        return ParseCache.shared().get("day5-almanac", file, this::parseGardenAlmanac);
     }
 
     private GardenAlmanac parseGardenAlmanac(String file) {
-        GardenAlmanac almanac = new GardenAlmanac();
-        GardenMapping currentMapping = null;
+        // Standard input can only be read once, so the seeds are parsed along with the mappings
+        LongArrayList seeds = new LongArrayList();
+        List<GardenMapping> mappings = new ArrayList<>();
+        GardenMapping.Builder currentMapping = null;
 
         for (String line : Utils.readLines(file).collect(Collectors.toList())) {
-            if (line.endsWith(" map:")) {
+            if (line.startsWith("seeds: ")) {
+                NumberScanner scanner = new NumberScanner(line);
+                while (scanner.hasNext()) {
+                    seeds.add(scanner.nextLong());
+                }
+            } else if (line.endsWith(" map:")) {
                 if (currentMapping != null) {
-                    almanac.addMapping(currentMapping);
+                    mappings.add(currentMapping.build());
                 }
 
                 Category src = Category.valueOf(substringBefore(line, "-to-").toUpperCase());
                 Category dst = Category.valueOf(substringBetween(line, "-to-", " map:").toUpperCase());
 
-                currentMapping = new GardenMapping(src, dst);
+                currentMapping = new GardenMapping.Builder(src, dst);
             } else if (currentMapping != null) {
-                String[] parts = line.split(" ");
-                if (parts.length == 3) {
-                    long dstStart = parseLong(parts[0]);
-                    long srcStart = parseLong(parts[1]);
-                    long range = parseLong(parts[2]);
+                NumberScanner scanner = new NumberScanner(line);
+                if (scanner.hasNext()) {
+                    long dstStart = scanner.nextLong();
+                    long srcStart = scanner.nextLong();
+                    long range = scanner.nextLong();
 
                     currentMapping.addRangeMapping(dstStart, srcStart, range);
                 }
@@ -142,44 +163,10 @@ public class Day5 implements Solution {
         }
 
         if (currentMapping != null) {
-            almanac.addMapping(currentMapping);
-        }
-
-        return almanac;
-    }
-
-    private LongStream parseSeeds_star1(String line) {
-        return Stream.of(line.split(" "))
-                .mapToLong(Long::parseLong);
-    }
-
-    private LongStream parseSeeds_star2(String line) {
-        return patternMatchStream(line, Pattern.compile("\\d+ \\d+"))
-                .flatMapToLong(this::parseSeedsFromPair_star2);
-    }
-
-    private LongStream parseSeedsFromPair_star2(String pair) {
-        String[] parts = pair.split(" ");
-        if (parts.length != 2) {
-            throw new IllegalStateException();
-        }
-
-        long start = parseLong(parts[0]);
-        long length = parseLong(parts[1]);
-        long end = start + length - 1;
-
-        return LongStream.range(start, end);
-    }
-
-    private Stream<String> patternMatchStream(String input, Pattern pattern) {
-        Stream.Builder<String> builder = Stream.builder();
-
-        Matcher matcher = pattern.matcher(input);
-        while (matcher.find()) {
-            builder.add(matcher.group());
+            mappings.add(currentMapping.build());
         }
 
-        return builder.build();
+        return new GardenAlmanac(seeds.toArray(), mappings);
     }
 
     public enum Category {
@@ -198,14 +185,33 @@ public class Day5 implements Solution {
 
     public static class GardenAlmanac {
 
-        private final List<GardenMapping> mappings = new ArrayList<>();
+        private final long[] seeds;
+        private final List<GardenMapping> mappings;
+
+        /**
+         * @param seeds  the numbers on the seeds line, which star 2 reads as {@code start, length} pairs
+         */
+        public GardenAlmanac(long[] seeds, List<GardenMapping> mappings) {
+            List<GardenMapping> sorted = new ArrayList<>(mappings);
+            sorted.sort(Comparator.comparing(m -> m.getSourceCategory().ordering()));
+            this.seeds = seeds.clone();
+            this.mappings = List.copyOf(sorted);
+        }
 
-        public GardenAlmanac() {
+        public LongStream seeds() {
+            return Arrays.stream(seeds);
         }
 
-        public void addMapping(GardenMapping mapping) {
-            mappings.add(mapping);
-            mappings.sort(Comparator.comparing(m -> m.getSourceCategory().ordering()));
+        /**
+         * Returns the seed ranges as {@code {start, length}} pairs.
+         */
+        public List<long[]> getSeedRanges() {
+            List<long[]> ranges = new ArrayList<>();
+            for (int i = 0; i + 1 < seeds.length; i += 2) {
+                ranges.add(new long[]{seeds[i], seeds[i + 1]});
+            }
+
+            return ranges;
         }
 
         public long mapThroughAllCategories(long number) {
@@ -222,31 +228,25 @@ public class Day5 implements Solution {
         private final Category sourceCategory;
         private final Category destinationCategory;
 
-        private final TreeMap<Long, Long> sourceDeltaMap = new TreeMap<>(Long::compare); // <source, delta>
-
-        public GardenMapping(Category sourceCategory, Category destinationCategory) {
-            if (destinationCategory.ordering() - sourceCategory.ordering() != 1) {
-                throw new IllegalArgumentException();
-            }
+        // Sorted sources of the ranges, and the delta to add to a source from each one on
+        private final long[] sources;
+        private final long[] deltas;
 
+        private GardenMapping(Category sourceCategory, Category destinationCategory, long[] sources, long[] deltas) {
             this.sourceCategory = sourceCategory;
             this.destinationCategory = destinationCategory;
-        }
-
-        public void addRangeMapping(long destinationStart, long sourceStart, long range) {
-            sourceDeltaMap.put(sourceStart, destinationStart - sourceStart);
-
-            if (!sourceDeltaMap.containsKey(sourceStart + range)) {
-                sourceDeltaMap.put(sourceStart + range, null);
-            }
+            this.sources = sources;
+            this.deltas = deltas;
         }
 
         public long map(long source) {
-            long delta = Optional.ofNullable(sourceDeltaMap.floorEntry(source))
-                    .map(Map.Entry::getValue)
-                    .orElse(0L);
+            int index = Arrays.binarySearch(sources, source);
+            if (index < 0) {
+                // Use the closest source below, if any
+                index = -index - 2;
+            }
 
-            return source + delta;
+            return index >= 0 ? source + deltas[index] : source;
         }
 
         public Category getSourceCategory() {
@@ -256,5 +256,43 @@ public class Day5 implements Solution {
         public Category getDestinationCategory() {
             return destinationCategory;
         }
+
+        public static class Builder {
+
+            private final Category sourceCategory;
+            private final Category destinationCategory;
+
+            private final LongHashMap sourceDeltaMap = new LongHashMap(); // <source, delta>
+
+            public Builder(Category sourceCategory, Category destinationCategory) {
+                if (destinationCategory.ordering() - sourceCategory.ordering() != 1) {
+                    throw new IllegalArgumentException();
+                }
+
+                this.sourceCategory = sourceCategory;
+                this.destinationCategory = destinationCategory;
+            }
+
+            public Builder addRangeMapping(long destinationStart, long sourceStart, long range) {
+                sourceDeltaMap.put(sourceStart, destinationStart - sourceStart);
+
+                if (!sourceDeltaMap.containsKey(sourceStart + range)) {
+                    // End of the range: no delta, unless another range starts here
+                    sourceDeltaMap.put(sourceStart + range, 0);
+                }
+
+                return this;
+            }
+
+            public GardenMapping build() {
+                long[] sources = sourceDeltaMap.sortedKeys();
+                long[] deltas = new long[sources.length];
+                for (int i = 0; i < sources.length; i++) {
+                    deltas[i] = sourceDeltaMap.get(sources[i], 0);
+                }
+
+                return new GardenMapping(sourceCategory, destinationCategory, sources, deltas);
+            }
+        }
     }
 }
@@ -1,5 +1,6 @@
 package me.gritter.aoc2023;
 
+import me.gritter.aoc2023.collections.LongArrayList;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Collection;
@@ -21,15 +22,18 @@ public class Day6 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        return parseRaces_star1(file)
+        List<Race> races = Metrics.current().phase("parse", () -> parseRaces_star1(file)
+                .collect(Collectors.toList()));
+
+        return Metrics.current().phase("solve", () -> races.stream()
                 .map(Race::calculateWinPossibilities)
-                .reduce(1L, (a, b) -> a * b);
+                .reduce(1L, (a, b) -> a * b));
     }
 
     @Override
     public long solution_star2(String file) {
-        var race = parseRace_star2(file);
-        return race.calculateWinPossibilities();
+        var race = Metrics.current().phase("parse", () -> parseRace_star2(file));
+        return Metrics.current().phase("solve", race::calculateWinPossibilities);
     }
 
     private Race parseRace_star2(String file) {
@@ -59,23 +63,17 @@ public class Day6 implements Solution {
     }
 
     private Stream<Race> parseRaces_star1(String file) {
-        Collection<String> lines = Utils.readLines(file)
-                .map(StringUtils::normalizeSpace)
-                .collect(Collectors.toList());
-
-        List<Long> times = lines.stream()
-                .filter(line -> startsWith(line, "Time: "))
-                .map(line -> substringAfter(line, "Time: "))
-                .flatMap(line -> Stream.of(line.split(" ")))
-                .map(Long::parseLong)
-                .collect(Collectors.toList());
-
-        List<Long> distances = lines.stream()
-                .filter(line -> startsWith(line, "Distance: "))
-                .map(line -> substringAfter(line, "Distance: "))
-                .flatMap(line -> Stream.of(line.split(" ")))
-                .map(Long::parseLong)
-                .collect(Collectors.toList());
+        Collection<String> lines = Utils.readLines(file).collect(Collectors.toList());
+
+        LongArrayList times = new LongArrayList();
+        LongArrayList distances = new LongArrayList();
+        for (String line : lines) {
+            if (startsWith(line, "Time: ")) {
+                parseNumbers(line, times);
+            } else if (startsWith(line, "Distance: ")) {
+                parseNumbers(line, distances);
+            }
+        }
 
         if (times.size() != distances.size()) {
             throw new IllegalStateException();
@@ -92,6 +90,13 @@ public class Day6 implements Solution {
         return races.build();
     }
 
+    private void parseNumbers(String line, LongArrayList numbers) {
+        NumberScanner scanner = new NumberScanner(line);
+        while (scanner.hasNext()) {
+            numbers.add(scanner.nextLong());
+        }
+    }
+
     public static class Race {
 
         public final long time;
@@ -52,32 +52,32 @@ public class Day7 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        Collection<Hand> hands = Utils.readLines(file)
+        Collection<Hand> hands = Metrics.current().phase("parse", () -> Utils.readLines(file)
                 .map(line -> parseHand(line, STAR_1_CARD_MAP))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toSet()));
 
-        return countWinnings(hands);
+        return Metrics.current().phase("solve", () -> countWinnings(hands));
     }
 
     @Override
     public long solution_star2(String file) {
-        Collection<Hand> hands = Utils.readLines(file)
+        Collection<Hand> hands = Metrics.current().phase("parse", () -> Utils.readLines(file)
                 .map(line -> parseHand(line, STAR_2_CARD_MAP))
-                .collect(Collectors.toSet());
+                .collect(Collectors.toSet()));
 
-        return countWinnings(hands);
+        return Metrics.current().phase("solve", () -> countWinnings(hands));
     }
 
-    private int countWinnings(Collection<Hand> hands) {
+    private long countWinnings(Collection<Hand> hands) {
         List<Hand> sortedHands = new ArrayList<>(hands);
         Collections.sort(sortedHands);
 
-        int winnings = 0;
+        long winnings = 0;
         for (int i = 0; i < sortedHands.size(); i++) {
             Hand hand = sortedHands.get(i);
             int rank = i + 1;
 
-            winnings += rank * hand.getBid();
+            winnings += (long) rank * hand.getBid();
         }
 
         return winnings;
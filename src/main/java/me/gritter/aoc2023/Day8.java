@@ -3,6 +3,7 @@ package me.gritter.aoc2023;
 import org.apache.commons.math3.util.ArithmeticUtils;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static java.util.Objects.requireNonNull;
@@ -19,35 +20,32 @@ public class Day8 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        Network network = loadNetwork(file, Star1NetworkNode::new);
-
-        return network.getNodes()
-                .stream()
-                .filter(NetworkNode::isStartingNode)
-                .map(node -> new Walker(network, node))
-                .map(Walker::walkUntilEnd)
-                .reduce(this::reduceLeastCommonDivider)
-                .orElseThrow();
+        return solution(file, name -> name.equals("AAA"), name -> name.equals("ZZZ"));
     }
 
     @Override
     public long solution_star2(String file) {
-        Network network = loadNetwork(file, Star2NetworkNode::new);
+        return solution(file, name -> name.endsWith("A"), name -> name.endsWith("Z"));
+    }
 
-        return network.getNodes()
+    private long solution(String file, Predicate<String> isStartingNode, Predicate<String> isEndingNode) {
+        Network network = Metrics.current().phase("parse", () ->
+                ParseCache.shared().get("day8-network", file, this::loadNetwork));
+
+        return Metrics.current().phase("solve", () -> network.getNodes()
                 .stream()
-                .filter(NetworkNode::isStartingNode)
-                .map(node -> new Walker(network, node))
+                .filter(node -> isStartingNode.test(node.getName()))
+                .map(node -> new Walker(network, node, isEndingNode))
                 .map(Walker::walkUntilEnd)
                 .reduce(this::reduceLeastCommonDivider)
-                .orElseThrow();
+                .orElseThrow());
     }
 
     private long reduceLeastCommonDivider(long a, long b) {
         return a * b / ArithmeticUtils.gcd(a, b);
     }
 
-    private Network loadNetwork(String file, NetworkNodeFactory networkNodeFactory) {
+    private Network loadNetwork(String file) {
         Collection<String> lines = Utils.readLines(file).collect(Collectors.toList());
 
         Sequence sequence = lines.stream()
@@ -55,7 +53,7 @@ public class Day8 implements Solution {
                 .map(this::parseSequence)
                 .orElseThrow();
 
-        Collection<NetworkNode> nodes = parseNetworkNodes(lines, networkNodeFactory);
+        Collection<NetworkNode> nodes = parseNetworkNodes(lines);
 
         return new Network(sequence, nodes);
     }
@@ -69,12 +67,12 @@ public class Day8 implements Solution {
         return new Sequence(steps);
     }
 
-    private Collection<NetworkNode> parseNetworkNodes(Collection<String> lines, NetworkNodeFactory networkNodeFactory) {
+    private Collection<NetworkNode> parseNetworkNodes(Collection<String> lines) {
         // Build empty nodes
         Map<String, NetworkNode> nodes = lines.stream()
                 .skip(2)
                 .map(line -> substringBefore(line, " = "))
-                .map(networkNodeFactory::build)
+                .map(NetworkNode::new)
                 .collect(Collectors.toMap(NetworkNode::getName, identity()));
 
         // Add connections to nodes
@@ -116,7 +114,7 @@ public class Day8 implements Solution {
         private final List<Step> steps;
 
         public Sequence(List<Step> steps) {
-            this.steps = steps;
+            this.steps = List.copyOf(steps);
         }
 
         public Step get(long stepNumber) {
@@ -152,7 +150,7 @@ public class Day8 implements Solution {
         }
     }
 
-    public abstract static class NetworkNode {
+    public static class NetworkNode {
 
         private final String name;
         private final Map<Step, NetworkNode> steps = new HashMap<>();
@@ -165,69 +163,27 @@ public class Day8 implements Solution {
             return name;
         }
 
-        public void addStep(Step step, NetworkNode connectedNode) {
+        private void addStep(Step step, NetworkNode connectedNode) {
             steps.put(step, connectedNode);
         }
 
         public NetworkNode getStep(Step step) {
             return steps.get(step);
         }
-
-        public abstract boolean isStartingNode();
-
-        public abstract boolean isEndingNode();
-    }
-
-    public static class Star1NetworkNode extends NetworkNode {
-
-        public Star1NetworkNode(String name) {
-            super(name);
-        }
-
-        @Override
-        public boolean isStartingNode() {
-            return getName().equals("AAA");
-        }
-
-        @Override
-        public boolean isEndingNode() {
-            return getName().equals("ZZZ");
-        }
-    }
-
-    public static class Star2NetworkNode extends NetworkNode {
-
-        public Star2NetworkNode(String name) {
-            super(name);
-        }
-
-        @Override
-        public boolean isStartingNode() {
-            return getName().endsWith("A");
-        }
-
-        @Override
-        public boolean isEndingNode() {
-            return getName().endsWith("Z");
-        }
-    }
-
-    @FunctionalInterface
-    public interface NetworkNodeFactory {
-
-        NetworkNode build(String name);
     }
 
     public static class Walker {
         private final Network network;
         private final NetworkNode first;
+        private final Predicate<String> isEndingNode;
 
         private NetworkNode current;
         private long stepNumber;
 
-        public Walker(Network network, NetworkNode first) {
+        public Walker(Network network, NetworkNode first, Predicate<String> isEndingNode) {
             this.network = network;
             this.first = first;
+            this.isEndingNode = isEndingNode;
 
             reset();
         }
@@ -257,7 +213,7 @@ public class Day8 implements Solution {
         }
 
         public boolean isAtEnd() {
-            return current.isEndingNode();
+            return isEndingNode.test(current.getName());
         }
 
         public Network getNetwork() {
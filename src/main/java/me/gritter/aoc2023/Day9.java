@@ -1,9 +1,10 @@
 package me.gritter.aoc2023;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import me.gritter.aoc2023.collections.IntArrayList;
+
+import java.util.Iterator;
 import java.util.List;
-import java.util.Objects;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -24,46 +25,72 @@ public class Day9 implements Solution {
 
     @Override
     public long solution_star1(String file) {
-        return Utils.readLines(file)
-                .map(this::parseSequence)
-                .mapToInt(Sequence::predictNext)
-                .sum();
+        return sumPredictions(file, Sequence::predictNext);
     }
 
     @Override
     public long solution_star2(String file) {
-        return Utils.readLines(file)
-                .map(this::parseSequence)
-                .mapToInt(Sequence::predictPrevious)
-                .sum();
+        return sumPredictions(file, Sequence::predictPrevious);
+    }
+
+    @Override
+    public Answers solveBoth(String file) {
+        long[] sums = new long[2];
+
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            for (Iterator<List<Sequence>> batches = Utils.parseBatches(lines, this::parseSequence);
+                 batches.hasNext(); ) {
+                List<Sequence> sequences = batches.next();
+                Metrics.current().phase("solve", () -> {
+                    for (Sequence sequence : sequences) {
+                        sums[0] += sequence.predictNext();
+                        sums[1] += sequence.predictPrevious();
+                    }
+                });
+            }
+        }
+
+        return new Answers(sums[0], sums[1]);
+    }
+
+    private long sumPredictions(String file, ToLongFunction<Sequence> prediction) {
+        long sum = 0;
+
+        try (Stream<String> lines = Utils.streamLines(file)) {
+            for (Iterator<List<Sequence>> batches = Utils.parseBatches(lines, this::parseSequence);
+                 batches.hasNext(); ) {
+                List<Sequence> sequences = batches.next();
+                sum += Metrics.current().phase("solve", () -> sequences.stream().mapToLong(prediction).sum());
+            }
+        }
+
+        return sum;
     }
 
     private Sequence parseSequence(String line) {
-        List<Integer> numbers = Stream.of(line.split(" "))
-                .map(Integer::parseInt)
-                .collect(Collectors.toList());
+        NumberScanner scanner = new NumberScanner(line);
+        IntArrayList numbers = new IntArrayList();
+        while (scanner.hasNext()) {
+            numbers.add(scanner.nextInt());
+        }
 
         return new Sequence(numbers);
     }
 
     public static class Sequence {
 
-        private final List<Integer> numbers;
-
-        public Sequence(List<Integer> numbers) {
-            if (numbers.stream().anyMatch(Objects::isNull)) {
-                throw new NullPointerException();
-            }
+        private final IntArrayList numbers;
 
+        public Sequence(IntArrayList numbers) {
             this.numbers = numbers;
         }
 
-        public Sequence(Integer... numbers) {
-            this(List.of(numbers));
+        public Sequence(int... numbers) {
+            this(IntArrayList.of(numbers));
         }
 
         public List<Integer> getNumbers() {
-            return Collections.unmodifiableList(numbers);
+            return numbers.stream().boxed().collect(Collectors.toUnmodifiableList());
         }
 
         public int size() {
@@ -98,9 +125,9 @@ public class Day9 implements Solution {
             int previous = predictPrevious();
             int next = predictNext();
 
-            List<Integer> before = new ArrayList<>();
+            IntArrayList before = new IntArrayList(numbers.size() + 2);
             before.add(previous);
-            before.addAll(numbers);
+            numbers.forEach(before::add);
             before.add(next);
 
             return new Sequence(before).grow(steps - 1);
@@ -125,7 +152,7 @@ public class Day9 implements Solution {
         }
 
         public Sequence calculateDeltas() {
-            List<Integer> delta = new ArrayList<>();
+            IntArrayList delta = new IntArrayList(Math.max(1, numbers.size() - 1));
 
             for (int i = 0; i < numbers.size() - 1; i++) {
                 int a = numbers.get(i);
@@ -138,7 +165,13 @@ public class Day9 implements Solution {
         }
 
         public boolean isZeros() {
-            return numbers.stream().allMatch(n -> n == 0);
+            for (int i = 0; i < numbers.size(); i++) {
+                if (numbers.get(i) != 0) {
+                    return false;
+                }
+            }
+
+            return true;
         }
 
         @Override
@@ -162,8 +195,8 @@ public class Day9 implements Solution {
             }
 
             int longest = 0;
-            for (int n : numbers) {
-                String s = String.valueOf(n);
+            for (int i = 0; i < numbers.size(); i++) {
+                String s = String.valueOf(numbers.get(i));
                 longest = Math.max(longest, s.length());
             }
 
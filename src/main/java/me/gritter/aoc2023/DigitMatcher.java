@@ -0,0 +1,128 @@
+package me.gritter.aoc2023;
+
+import java.util.Arrays;
+
+/**
+ * Aho-Corasick automaton which recognizes the digits {@code 0-9}, and optionally the spelled out digits
+ * {@code one} to {@code nine}, in a stream of characters.
+ * <p>
+ * The goto and failure transitions are flattened into a table over ASCII, so feeding a character is a single array
+ * lookup. After every character, {@link #digit(int)} returns the digit which ends at it, if any. Overlapping words
+ * (e.g. {@code eightwo}) are both recognized. Every matcher has a {@link #reversed()} counterpart, which recognizes
+ * the same digits when the characters are fed from back to front. Instances are immutable and thread-safe.
+ */
+public final class DigitMatcher {
+
+    private static final String[] WORDS = {"one", "two", "three", "four", "five", "six", "seven", "eight", "nine"};
+
+    private static final int ALPHABET_BITS = 7;
+    private static final int ALPHABET = 1 << ALPHABET_BITS;
+
+    public static final int INITIAL_STATE = 0;
+    public static final int NO_DIGIT = -1;
+
+    public static final DigitMatcher DIGITS = new DigitMatcher(false);
+    public static final DigitMatcher DIGITS_AND_WORDS = new DigitMatcher(true);
+
+    private final int[] transitions;
+    private final int[] digits;
+    private final DigitMatcher reversed;
+
+    private DigitMatcher(boolean words) {
+        this(words, null);
+    }
+
+    /**
+     * @param forwards  the matcher to build the reversed counterpart of, or {@code null} to build a forwards matcher
+     */
+    private DigitMatcher(boolean words, DigitMatcher forwards) {
+        // Every pattern adds at most one state per character
+        int maxStates = 1 + 10 + (words ? Arrays.stream(WORDS).mapToInt(String::length).sum() : 0);
+        int[] transitions = new int[maxStates << ALPHABET_BITS];
+        int[] digits = new int[maxStates];
+        Arrays.fill(transitions, -1);
+        Arrays.fill(digits, NO_DIGIT);
+
+        // Build the trie
+        int states = 1;
+        for (int digit = 0; digit <= 9; digit++) {
+            transitions[INITIAL_STATE << ALPHABET_BITS | '0' + digit] = states;
+            digits[states++] = digit;
+        }
+        for (int i = 0; words && i < WORDS.length; i++) {
+            int state = INITIAL_STATE;
+            String word = forwards == null ? WORDS[i] : new StringBuilder(WORDS[i]).reverse().toString();
+            for (char ch : word.toCharArray()) {
+                int index = state << ALPHABET_BITS | ch;
+                if (transitions[index] == -1) {
+                    transitions[index] = states++;
+                }
+                state = transitions[index];
+            }
+            digits[state] = i + 1;
+        }
+
+        // Fill in the failure transitions breadth-first, so the failure state of a state is always complete
+        int[] failure = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+
+        for (int ch = 0; ch < ALPHABET; ch++) {
+            int child = transitions[INITIAL_STATE << ALPHABET_BITS | ch];
+            if (child == -1) {
+                transitions[INITIAL_STATE << ALPHABET_BITS | ch] = INITIAL_STATE;
+            } else {
+                failure[child] = INITIAL_STATE;
+                queue[tail++] = child;
+            }
+        }
+
+        while (head < tail) {
+            int state = queue[head++];
+            for (int ch = 0; ch < ALPHABET; ch++) {
+                int index = state << ALPHABET_BITS | ch;
+                int fallback = transitions[failure[state] << ALPHABET_BITS | ch];
+                int child = transitions[index];
+                if (child == -1) {
+                    transitions[index] = fallback;
+                } else {
+                    failure[child] = fallback;
+                    if (digits[child] == NO_DIGIT) {
+                        digits[child] = digits[fallback];
+                    }
+                    queue[tail++] = child;
+                }
+            }
+        }
+
+        this.transitions = Arrays.copyOf(transitions, states << ALPHABET_BITS);
+        this.digits = Arrays.copyOf(digits, states);
+        this.reversed = forwards == null ? new DigitMatcher(words, this) : forwards;
+    }
+
+    /**
+     * Returns the state after reading {@code ch} in {@code state}. Characters outside of ASCII reset the automaton.
+     */
+    public int next(int state, int ch) {
+        return ch < ALPHABET ? transitions[state << ALPHABET_BITS | ch] : INITIAL_STATE;
+    }
+
+    /**
+     * Returns the digit ending at the last character read to reach {@code state}, or {@link #NO_DIGIT}.
+     */
+    public int digit(int state) {
+        return digits[state];
+    }
+
+    /**
+     * Returns the matcher which recognizes the same digits in characters read from back to front.
+     */
+    public DigitMatcher reversed() {
+        return reversed;
+    }
+
+    public int stateCount() {
+        return digits.length;
+    }
+}
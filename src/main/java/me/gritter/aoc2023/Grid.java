@@ -0,0 +1,410 @@
+package me.gritter.aoc2023;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Mutable 2D grid storing one byte per cell, row by row. Cells are addressed either by their coordinates or by
+ * their packed index ({@code x + y * width}).
+ * <p>
+ * The accessors don't check bounds (beyond the bounds check of the backing storage), use
+ * {@link #isInBounds(int, int)} where needed. {@link #snapshot()} is copy-on-write: the grid and its snapshot share
+ * their cells until one of them is modified.
+ * <p>
+ * Cells are stored in a {@code byte[]}, or off-heap in a direct buffer for grids of at least
+ * {@link #OFF_HEAP_THRESHOLD} cells (see {@link #allocate(int, int)}), so very large grids don't fill the heap. Closing
+ * a grid frees its off-heap cells once no snapshot shares them anymore, the grid must not be used afterwards. Direct
+ * buffers count towards {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size.
+ */
+public class Grid implements AutoCloseable, ParseCache.Snapshottable<Grid> {
+
+    /**
+     * Number of cells from which {@link #allocate(int, int)} stores a grid off-heap, set using the
+     * {@code aoc.grid.offHeapThreshold} system property.
+     */
+    public static final long OFF_HEAP_THRESHOLD = Long.getLong("aoc.grid.offHeapThreshold", 1L << 28);
+
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    // Exactly one of cells and offHeap is set, buffer caches the buffer of offHeap.
+    private byte[] cells;
+    private OffHeapCells offHeap;
+    private ByteBuffer buffer;
+    private boolean shared;
+
+    private final int width;
+    private final int height;
+
+    public Grid(int width, int height) {
+        this(new byte[checkedSize(width, height)], null, width, height, false);
+    }
+
+    private Grid(byte[] cells, OffHeapCells offHeap, int width, int height, boolean shared) {
+        int size = cells != null ? cells.length : offHeap.buffer.capacity();
+        if (size != width * height) {
+            throw new IllegalArgumentException();
+        }
+
+        this.cells = cells;
+        this.offHeap = offHeap;
+        this.buffer = offHeap != null ? offHeap.buffer : null;
+        this.width = width;
+        this.height = height;
+        this.shared = shared;
+    }
+
+    /**
+     * Creates an empty grid stored off-heap.
+     */
+    public static Grid offHeap(int width, int height) {
+        return new Grid(null, new OffHeapCells(checkedSize(width, height)), width, height, false);
+    }
+
+    /**
+     * Creates an empty grid, stored off-heap if it has at least {@link #OFF_HEAP_THRESHOLD} cells.
+     */
+    public static Grid allocate(int width, int height) {
+        return (long) width * height >= OFF_HEAP_THRESHOLD ? offHeap(width, height) : new Grid(width, height);
+    }
+
+    public static Grid of(InputGrid input) {
+        Grid grid = allocate(input.getWidth(), input.getHeight());
+        for (int y = 0; y < grid.height; y++) {
+            if (grid.cells != null) {
+                input.copyRow(y, grid.cells, y * grid.width);
+            } else {
+                input.copyRow(y, grid.buffer, y * grid.width);
+            }
+        }
+
+        return grid;
+    }
+
+    private static int checkedSize(int width, int height) {
+        long size = (long) width * height;
+        if (width < 0 || height < 0 || size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Grid of " + width + "x" + height + " is too large.");
+        }
+
+        return (int) size;
+    }
+
+    public int index(int x, int y) {
+        return x + y * width;
+    }
+
+    public int x(int index) {
+        return index % width;
+    }
+
+    public int y(int index) {
+        return index / width;
+    }
+
+    public byte get(int index) {
+        return cells != null ? cells[index] : buffer.get(index);
+    }
+
+    public byte get(int x, int y) {
+        return get(x + y * width);
+    }
+
+    public char getChar(int index) {
+        return (char) get(index);
+    }
+
+    public char getChar(int x, int y) {
+        return (char) get(x + y * width);
+    }
+
+    public void set(int index, byte value) {
+        if (shared) {
+            unshare();
+        }
+
+        if (cells != null) {
+            cells[index] = value;
+        } else {
+            buffer.put(index, value);
+        }
+    }
+
+    public void set(int x, int y, byte value) {
+        set(x + y * width, value);
+    }
+
+    public void set(int x, int y, char value) {
+        set(x + y * width, (byte) value);
+    }
+
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && x < width && y >= 0 && y < height;
+    }
+
+    public boolean isOnBorder(int index) {
+        int x = x(index);
+        int y = y(index);
+        return x == 0 || x == width - 1 || y == 0 || y == height - 1;
+    }
+
+    /**
+     * Calls {@code consumer} with the index of every orthogonal neighbor (north, east, south, west) within bounds.
+     */
+    public void forEachNeighbor(int index, IntConsumer consumer) {
+        int x = x(index);
+        if (index >= width) consumer.accept(index - width);
+        if (x < width - 1) consumer.accept(index + 1);
+        if (index < size() - width) consumer.accept(index + width);
+        if (x > 0) consumer.accept(index - 1);
+    }
+
+    /**
+     * Calls {@code consumer} with the index of every orthogonal and diagonal neighbor within bounds.
+     */
+    public void forEachAdjacent(int index, IntConsumer consumer) {
+        int x = x(index);
+        int y = y(index);
+        for (int ny = Math.max(0, y - 1); ny <= Math.min(height - 1, y + 1); ny++) {
+            for (int nx = Math.max(0, x - 1); nx <= Math.min(width - 1, x + 1); nx++) {
+                if (nx != x || ny != y) {
+                    consumer.accept(nx + ny * width);
+                }
+            }
+        }
+    }
+
+    public Line row(int y) {
+        return new Line(this, y * width, 1, width);
+    }
+
+    public Line column(int x) {
+        return new Line(this, x, width, height);
+    }
+
+    /**
+     * Returns a copy of this grid. The cells are only copied once either grid is modified. Snapshots of a grid which
+     * isn't being modified may be taken concurrently.
+     */
+    @Override
+    public synchronized Grid snapshot() {
+        shared = true;
+        if (offHeap != null) {
+            offHeap.retain();
+        }
+
+        return new Grid(cells, offHeap, width, height, true);
+    }
+
+    private void unshare() {
+        if (cells != null) {
+            cells = cells.clone();
+        } else {
+            OffHeapCells copy = new OffHeapCells(buffer.capacity());
+            copy.buffer.put(buffer.duplicate().clear());
+            offHeap.release();
+
+            offHeap = copy;
+            buffer = copy.buffer;
+        }
+
+        shared = false;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap != null;
+    }
+
+    /**
+     * Frees the off-heap cells of this grid, unless a snapshot still shares them. Does nothing for on-heap grids.
+     */
+    @Override
+    public void close() {
+        if (offHeap != null) {
+            offHeap.release();
+            offHeap = null;
+            buffer = null;
+        }
+    }
+
+    public int size() {
+        return width * height;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Grid grid = (Grid) o;
+        return width == grid.width && height == grid.height && asBuffer().equals(grid.asBuffer());
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(width, height);
+        for (int i = 0; i < size(); i++) {
+            result = 31 * result + get(i);
+        }
+
+        return result;
+    }
+
+    /**
+     * 64-bit hash of the cells, for keying large numbers of states where {@link #hashCode()} would collide.
+     */
+    public long contentHash() {
+        long hash = 0xCBF29CE484222325L ^ ((long) width << 32 | height);
+        for (int i = 0; i < size(); i++) {
+            hash = (hash ^ get(i)) * 0x100000001B3L;
+        }
+
+        // Finalize, so the low bits depend on all cells
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(width * height + height - 1);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                sb.append(getChar(x, y));
+            }
+
+            if (y != height - 1) {
+                sb.append('\n');
+            }
+        }
+
+        return sb.toString();
+    }
+
+    private ByteBuffer asBuffer() {
+        return cells != null ? ByteBuffer.wrap(cells) : buffer.duplicate().clear();
+    }
+
+    /**
+     * Finds {@code sun.misc.Unsafe#invokeCleaner}, the only way to free a direct buffer before it's garbage collected.
+     * It's looked up reflectively, as it's an unsupported API (from the {@code jdk.unsupported} module). If it isn't
+     * available, off-heap cells are only freed once their buffer is garbage collected. It's only ever invoked on a
+     * buffer allocated by {@link OffHeapCells}, never on a slice or duplicate, and only once its reference count drops
+     * to zero, so no grid can access the freed memory afterwards.
+     */
+    private static MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Without it, direct buffers are only freed once they're garbage collected
+            return null;
+        }
+    }
+
+    /**
+     * Off-heap cells, reference counted so snapshots can share them. The buffer is freed when the last reference is
+     * released, after which it can't be retained again.
+     */
+    private static class OffHeapCells {
+
+        private final ByteBuffer buffer;
+        private final AtomicInteger references = new AtomicInteger(1);
+
+        public OffHeapCells(int size) {
+            this.buffer = ByteBuffer.allocateDirect(size);
+        }
+
+        public void retain() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    throw new IllegalStateException("Off-heap cells have already been freed.");
+                }
+            } while (!references.compareAndSet(count, count + 1));
+        }
+
+        public void release() {
+            int count = references.decrementAndGet();
+            if (count < 0) {
+                throw new IllegalStateException("Off-heap cells have been released too often.");
+            }
+
+            if (count == 0 && INVOKE_CLEANER != null) {
+                try {
+                    INVOKE_CLEANER.invokeExact(buffer);
+                } catch (Throwable e) {
+                    throw new IllegalStateException("Couldn't free off-heap cells.", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * View of a single row or column of a grid.
+     */
+    public static class Line {
+
+        private final Grid grid;
+        private final int start;
+        private final int step;
+        private final int length;
+
+        private Line(Grid grid, int start, int step, int length) {
+            this.grid = grid;
+            this.start = start;
+            this.step = step;
+            this.length = length;
+        }
+
+        public int index(int i) {
+            return start + i * step;
+        }
+
+        public byte get(int i) {
+            return grid.get(start + i * step);
+        }
+
+        public void set(int i, byte value) {
+            grid.set(start + i * step, value);
+        }
+
+        public int length() {
+            return length;
+        }
+
+        public boolean contentEquals(Line other) {
+            if (length != other.length) {
+                return false;
+            }
+
+            for (int i = 0; i < length; i++) {
+                if (get(i) != other.get(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package me.gritter.aoc2023;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read-only view of an ASCII grid inside a byte buffer: rows of equal width, each followed by a newline (the
+ * newline after the last row is optional). Cells are read directly from the buffer, no strings are created.
+ */
+public class InputGrid {
+
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int width;
+    private final int height;
+    private final int stride;
+
+    private InputGrid(ByteBuffer buffer, int offset, int width, int height) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.width = width;
+        this.height = height;
+        this.stride = width + 1;
+
+        for (int y = 0; y < height - 1; y++) {
+            if (buffer.get(offset + y * stride + width) != '\n') {
+                throw new IllegalArgumentException("Row " + y + " doesn't have a width of " + width + ".");
+            }
+        }
+    }
+
+    public static InputGrid of(ByteBuffer buffer) {
+        return of(buffer, 0, trimNewlines(buffer, 0, buffer.limit()));
+    }
+
+    public static InputGrid of(ByteBuffer buffer, int start, int end) {
+        int width = indexOfNewline(buffer, start, end) - start;
+        int height = width == 0 ? 0 : (end - start + 1) / (width + 1);
+
+        // Every row is followed by a newline, except for (optionally) the last one
+        int length = end - start;
+        int stride = width + 1;
+        boolean complete = length == height * stride - 1
+                || (length == height * stride && buffer.get(end - 1) == '\n');
+        if (height > 0 && !complete) {
+            throw new IllegalArgumentException("Last row doesn't have a width of " + width + ".");
+        }
+
+        return new InputGrid(buffer, start, width, height);
+    }
+
+    /**
+     * Splits a buffer containing multiple grids, separated by empty lines.
+     */
+    public static List<InputGrid> split(ByteBuffer buffer) {
+        List<InputGrid> grids = new ArrayList<>();
+
+        int end = trimNewlines(buffer, 0, buffer.limit());
+        int start = 0;
+        for (int i = 0; i < end - 1; i++) {
+            if (buffer.get(i) == '\n' && buffer.get(i + 1) == '\n') {
+                grids.add(of(buffer, start, i));
+                start = i + 2;
+                i++;
+            }
+        }
+
+        if (start < end) {
+            grids.add(of(buffer, start, end));
+        }
+
+        return grids;
+    }
+
+    private static int indexOfNewline(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+
+        return end;
+    }
+
+    private static int trimNewlines(ByteBuffer buffer, int start, int end) {
+        while (end > start && buffer.get(end - 1) == '\n') {
+            end--;
+        }
+
+        return end;
+    }
+
+    public byte get(int x, int y) {
+        return buffer.get(offset + y * stride + x);
+    }
+
+    public char getChar(int x, int y) {
+        return (char) get(x, y);
+    }
+
+    /**
+     * Copies a full row into {@code destination}, starting at {@code destinationOffset}.
+     */
+    public void copyRow(int y, byte[] destination, int destinationOffset) {
+        buffer.duplicate()
+                .position(offset + y * stride)
+                .get(destination, destinationOffset, width);
+    }
+
+    /**
+     * Copies a full row into {@code destination}, starting at index {@code destinationOffset}.
+     */
+    public void copyRow(int y, ByteBuffer destination, int destinationOffset) {
+        ByteBuffer row = buffer.duplicate();
+        row.limit(offset + y * stride + width).position(offset + y * stride);
+
+        ByteBuffer target = destination.duplicate();
+        target.position(destinationOffset);
+        target.put(row);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getStride() {
+        return stride;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(width * height + height - 1);
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                sb.append(getChar(x, y));
+            }
+
+            if (y != height - 1) {
+                sb.append('\n');
+            }
+        }
+
+        return sb.toString();
+    }
+}
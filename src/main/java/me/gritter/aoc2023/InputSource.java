@@ -0,0 +1,298 @@
+package me.gritter.aoc2023;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Where an input is read from. The file names accepted by the solutions are resolved as:
+ * <ul>
+ *   <li>{@code -}: standard input</li>
+ *   <li>a resource next to this class, e.g. {@code day5-puzzle.txt}</li>
+ *   <li>an absolute path on the file system</li>
+ * </ul>
+ * Gzip-compressed inputs are recognized by their magic number and decompressed while streaming.
+ * <p>
+ * Standard input can only be streamed once. Reading it as a buffer ({@link #map()}) keeps its contents in memory, so
+ * it can be read again afterwards.
+ */
+public abstract class InputSource {
+
+    public static final String STDIN = "-";
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private static StdinSource stdin;
+
+    private final String name;
+
+    private InputSource(String name) {
+        this.name = name;
+    }
+
+    public static InputSource of(String file) {
+        if (STDIN.equals(file)) {
+            return stdin();
+        }
+
+        URL url = InputSource.class.getResource(file);
+        if (url != null) {
+            if ("file".equals(url.getProtocol())) {
+                try {
+                    return new PathSource(file, Path.of(url.toURI()));
+                } catch (URISyntaxException e) {
+                    throw new IllegalArgumentException(file, e);
+                }
+            }
+
+            return new UrlSource(file, url);
+        }
+
+        Path path = Path.of(file);
+        if (path.isAbsolute() && Files.isRegularFile(path)) {
+            return new PathSource(file, path);
+        }
+
+        throw new IllegalArgumentException("Input not found: " + file);
+    }
+
+    private static synchronized StdinSource stdin() {
+        // Tied to the current System.in, which may be replaced
+        if (stdin == null || stdin.in != System.in) {
+            stdin = new StdinSource(System.in);
+        }
+
+        return stdin;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Opens the (decompressed) contents as a stream.
+     */
+    public InputStream open() throws IOException {
+        InputStream in = new BufferedInputStream(openRaw(), BUFFER_SIZE);
+
+        in.mark(2);
+        int magic = in.read() | (in.read() << 8);
+        in.reset();
+
+        return magic == GZIP_MAGIC ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+
+    /**
+     * Returns the (decompressed) contents as a read-only buffer. Uncompressed files are memory-mapped, other inputs are
+     * read onto the heap.
+     */
+    public ByteBuffer map() throws IOException {
+        ByteBuffer raw = mapRaw();
+        if (raw.remaining() >= 2 && isGzip(raw.get(raw.position()), raw.get(raw.position() + 1))) {
+            try (InputStream in = open()) {
+                return ByteBuffer.wrap(in.readAllBytes()).asReadOnlyBuffer();
+            }
+        }
+
+        return raw;
+    }
+
+    /**
+     * Returns whether {@link #map()} memory-maps the contents, rather than reading (and decompressing) them onto the
+     * heap.
+     */
+    public boolean isMapped() throws IOException {
+        return false;
+    }
+
+    /**
+     * Returns the size in bytes of a source which {@link #isMapped() is memory-mapped}.
+     */
+    public long size() throws IOException {
+        throw new IllegalStateException("The size of " + getName() + " isn't known without reading it.");
+    }
+
+    /**
+     * Memory-maps {@code size} bytes starting at {@code position} of a source which {@link #isMapped() is
+     * memory-mapped}, so inputs larger than a single buffer can be read in regions.
+     */
+    public ByteBuffer map(long position, int size) throws IOException {
+        throw new IllegalStateException(getName() + " can't be memory-mapped.");
+    }
+
+    /**
+     * Returns a cheap identity of the contents, without reading them: inputs with equal identities have the same
+     * contents. Files and resources are identified by their location, size and modification time. Standard input can
+     * only be read once, so it's identified by the source reading it.
+     */
+    public abstract String identity() throws IOException;
+
+    protected abstract InputStream openRaw() throws IOException;
+
+    protected ByteBuffer mapRaw() throws IOException {
+        try (InputStream in = openRaw()) {
+            return ByteBuffer.wrap(in.readAllBytes()).asReadOnlyBuffer();
+        }
+    }
+
+    private static boolean isGzip(byte first, byte second) {
+        return (first & 0xff | (second & 0xff) << 8) == GZIP_MAGIC;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+                "name='" + name + '\'' +
+                '}';
+    }
+
+    private static class PathSource extends InputSource {
+
+        private final Path path;
+        private volatile Boolean mapped; // Checked once, as size() and map(long, int) are called per region
+
+        public PathSource(String name, Path path) {
+            super(name);
+            this.path = path;
+        }
+
+        @Override
+        public boolean isMapped() throws IOException {
+            if (mapped == null) {
+                try (FileChannel channel = FileChannel.open(path)) {
+                    ByteBuffer magic = ByteBuffer.allocate(2);
+                    while (magic.hasRemaining() && channel.read(magic) != -1) {
+                        // Read both bytes
+                    }
+
+                    mapped = magic.hasRemaining() || !isGzip(magic.get(0), magic.get(1));
+                }
+            }
+
+            return mapped;
+        }
+
+        @Override
+        public long size() throws IOException {
+            if (!isMapped()) {
+                return super.size();
+            }
+
+            return Files.size(path);
+        }
+
+        @Override
+        public ByteBuffer map(long position, int size) throws IOException {
+            if (!isMapped()) {
+                return super.map(position, size);
+            }
+
+            try (FileChannel channel = FileChannel.open(path)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            }
+        }
+
+        @Override
+        public String identity() throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return path.toRealPath() + ":" + attributes.size() + ":" + attributes.lastModifiedTime().toMillis();
+        }
+
+        @Override
+        protected InputStream openRaw() throws IOException {
+            return Files.newInputStream(path);
+        }
+
+        @Override
+        protected ByteBuffer mapRaw() throws IOException {
+            try (FileChannel channel = FileChannel.open(path)) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+        }
+    }
+
+    /**
+     * A resource which isn't a plain file, e.g. one packaged inside a jar.
+     */
+    private static class UrlSource extends InputSource {
+
+        private final URL url;
+
+        public UrlSource(String name, URL url) {
+            super(name);
+            this.url = url;
+        }
+
+        @Override
+        public String identity() throws IOException {
+            // Doesn't read (or decompress) the contents of a jar entry
+            URLConnection connection = url.openConnection();
+            return url + ":" + connection.getContentLengthLong() + ":" + connection.getLastModified();
+        }
+
+        @Override
+        protected InputStream openRaw() throws IOException {
+            return url.openStream();
+        }
+    }
+
+    private static class StdinSource extends InputSource {
+
+        private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+        private final int instance = INSTANCES.incrementAndGet();
+        private final InputStream in;
+        private byte[] contents;
+        private boolean streamed;
+
+        public StdinSource(InputStream in) {
+            super(STDIN);
+            this.in = in;
+        }
+
+        @Override
+        public String identity() {
+            return STDIN + instance;
+        }
+
+        @Override
+        protected synchronized InputStream openRaw() {
+            if (contents != null) {
+                return new ByteArrayInputStream(contents);
+            }
+            if (streamed) {
+                throw new IllegalStateException("Standard input has already been read.");
+            }
+
+            streamed = true;
+            return new FilterInputStream(in) {
+                @Override
+                public void close() {
+                    // Leave standard input open
+                }
+            };
+        }
+
+        @Override
+        protected synchronized ByteBuffer mapRaw() throws IOException {
+            if (contents == null) {
+                if (streamed) {
+                    throw new IllegalStateException("Standard input has already been read.");
+                }
+
+                contents = in.readAllBytes();
+            }
+
+            return ByteBuffer.wrap(contents).asReadOnlyBuffer();
+        }
+    }
+}
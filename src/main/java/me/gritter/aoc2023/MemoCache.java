@@ -0,0 +1,210 @@
+package me.gritter.aoc2023;
+
+/**
+ * Memoization table from {@code long} keys to {@code long} values, for recursive solvers.
+ * <p>
+ * Keys are packed by the caller, see {@link #pack(int, int, int)}.
+ * <p>
+ * A bounded cache is 4-way set-associative: it evicts the least recently used entry of a full set. An unbounded cache
+ * uses linear probing and grows instead. Hits, misses and evictions are counted, and can be published to
+ * {@link Metrics} using {@link #publish(Metrics)}. Instances aren't thread-safe.
+ */
+public class MemoCache {
+
+    public static final int UNBOUNDED = 0;
+
+    private static final int WAYS = 4;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int PACKED_BITS = 21;
+
+    private final String name;
+    private final boolean bounded;
+
+    private long[] keys;
+    private long[] values;
+    private long[] stamps; // Last access of every slot, slots older than validFrom are empty
+    private int slotMask;
+    private int slotShift;
+    private int size;
+
+    private long tick = 1;
+    private long validFrom = 1;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public MemoCache(String name) {
+        this(name, UNBOUNDED);
+    }
+
+    /**
+     * @param capacity  maximum number of entries (rounded up to a power of two), or {@link #UNBOUNDED}
+     */
+    public MemoCache(String name, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative");
+        }
+
+        this.name = name;
+        this.bounded = capacity != UNBOUNDED;
+
+        allocate(bounded ? Math.max(WAYS, Integer.highestOneBit(Math.max(1, capacity - 1)) * 2) : INITIAL_CAPACITY);
+    }
+
+    /**
+     * Packs three non-negative values of at most 21 bits into a key.
+     */
+    public static long pack(int a, int b, int c) {
+        if (((a | b | c) >>> PACKED_BITS) != 0) {
+            throw new IllegalArgumentException("Values must fit in " + PACKED_BITS + " bits");
+        }
+
+        return ((long) a << (2 * PACKED_BITS)) | ((long) b << PACKED_BITS) | c;
+    }
+
+    /**
+     * Returns the value of {@code key}, or {@code missing} if it isn't cached.
+     */
+    public long get(long key, long missing) {
+        int slot = find(key);
+        if (slot >= 0 && isValid(slot)) {
+            stamps[slot] = tick++;
+            hits++;
+            return values[slot];
+        }
+
+        misses++;
+        return missing;
+    }
+
+    public void put(long key, long value) {
+        if (!bounded && size >= stamps.length / 4 * 3) {
+            allocate(stamps.length * 2);
+        }
+
+        int slot = find(key);
+        if (slot < 0) {
+            // Only a bounded cache can run out of slots: replace the least recently used entry of the set
+            int start = start(key);
+            slot = start;
+            for (int i = start + 1; i < start + WAYS; i++) {
+                if (stamps[i] < stamps[slot]) {
+                    slot = i;
+                }
+            }
+
+            evictions++;
+        } else if (!isValid(slot)) {
+            size++;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        stamps[slot] = tick++;
+    }
+
+    /**
+     * Removes all entries, keeping the statistics.
+     */
+    public void clear() {
+        validFrom = tick;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return stamps.length;
+    }
+
+    /**
+     * Adds the statistics to {@code name.hits}, {@code name.misses} and {@code name.evictions}, and resets them.
+     */
+    public void publish(Metrics metrics) {
+        metrics.add(name + ".hits", hits);
+        metrics.add(name + ".misses", misses);
+        metrics.add(name + ".evictions", evictions);
+
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, the empty slot to insert it in, or -1 if its set is full. A bounded cache
+     * only probes the set of the key, an unbounded cache keeps probing until it finds an empty slot.
+     */
+    private int find(long key) {
+        int start = start(key);
+        int probes = bounded ? WAYS : stamps.length;
+        for (int i = 0; i < probes; i++) {
+            int slot = (start + i) & slotMask;
+            if (!isValid(slot) || keys[slot] == key) {
+                return slot;
+            }
+        }
+
+        return -1;
+    }
+
+    private int start(long key) {
+        // Fibonacci hashing spreads the bits of packed keys over the slot index
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> slotShift) & ~(WAYS - 1);
+    }
+
+    private boolean isValid(int slot) {
+        return stamps[slot] >= validFrom;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] oldStamps = stamps;
+        long oldValidFrom = validFrom;
+
+        keys = new long[capacity];
+        values = new long[capacity];
+        stamps = new long[capacity];
+        slotMask = capacity - 1;
+        slotShift = 64 - Integer.numberOfTrailingZeros(capacity);
+        validFrom = 1;
+        size = 0;
+
+        if (oldStamps != null) {
+            for (int i = 0; i < oldStamps.length; i++) {
+                if (oldStamps[i] >= oldValidFrom) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    stamps[slot] = oldStamps[i];
+                    size++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MemoCache{" +
+                "name='" + name + '\'' +
+                ", hits=" + hits +
+                ", misses=" + misses +
+                ", evictions=" + evictions +
+                '}';
+    }
+}
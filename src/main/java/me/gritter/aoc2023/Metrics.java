@@ -0,0 +1,179 @@
+package me.gritter.aoc2023;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Timed phases and counters reported by the solutions.
+ * <p>
+ * Solutions report to {@link #current()}. Runners install a fresh instance per run using
+ * {@link #withMetrics(Metrics, Supplier)}, when no instance is installed metrics are reported to a global instance.
+ * Each phase records its invocation count, wall time, CPU time and the bytes allocated by the current thread.
+ * Instances are thread-safe, so work running on other threads can report to the same instance.
+ */
+public class Metrics {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final Metrics GLOBAL = new Metrics();
+    private static final ThreadLocal<Metrics> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Phase> phases = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final Map<String, LongAdder> counters = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public static Metrics current() {
+        Metrics metrics = CURRENT.get();
+        return metrics != null ? metrics : GLOBAL;
+    }
+
+    /**
+     * Runs {@code supplier} with {@code metrics} installed as the current instance of this thread.
+     */
+    public static <T> T withMetrics(Metrics metrics, Supplier<T> supplier) {
+        Metrics previous = CURRENT.get();
+        CURRENT.set(metrics);
+        try {
+            return supplier.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public <T> T phase(String name, Supplier<T> supplier) {
+        long wallStart = System.nanoTime();
+        long cpuStart = cpuTime();
+        long allocatedStart = allocatedBytes();
+        try {
+            return supplier.get();
+        } finally {
+            phases.computeIfAbsent(name, n -> new Phase())
+                    .record(
+                            System.nanoTime() - wallStart,
+                            cpuTime() - cpuStart,
+                            allocatedBytes() - allocatedStart
+                    );
+        }
+    }
+
+    public long phase(String name, LongSupplier supplier) {
+        return phase(name, (Supplier<Long>) supplier::getAsLong);
+    }
+
+    public void phase(String name, Runnable runnable) {
+        phase(name, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public void increment(String counter) {
+        add(counter, 1);
+    }
+
+    public void add(String counter, long delta) {
+        counters.computeIfAbsent(counter, c -> new LongAdder()).add(delta);
+    }
+
+    public long getCounter(String counter) {
+        LongAdder adder = counters.get(counter);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    public Map<String, Phase> getPhases() {
+        synchronized (phases) {
+            return new LinkedHashMap<>(phases);
+        }
+    }
+
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new LinkedHashMap<>();
+        synchronized (counters) {
+            counters.forEach((name, adder) -> result.put(name, adder.sum()));
+        }
+
+        return result;
+    }
+
+    public String toJson() {
+        StringJoiner phasesJson = new StringJoiner(",", "{", "}");
+        getPhases().forEach((name, phase) -> phasesJson.add(String.format(
+                "\"%s\":{\"count\":%d,\"wallNanos\":%d,\"cpuNanos\":%d,\"allocatedBytes\":%d}",
+                name, phase.getCount(), phase.getWallNanos(), phase.getCpuNanos(), phase.getAllocatedBytes()
+        )));
+
+        StringJoiner countersJson = new StringJoiner(",", "{", "}");
+        getCounters().forEach((name, value) -> countersJson.add(String.format("\"%s\":%d", name, value)));
+
+        return "{\"phases\":" + phasesJson + ",\"counters\":" + countersJson + "}";
+    }
+
+    public static String csvHeader() {
+        return "type,name,count,wallNanos,cpuNanos,allocatedBytes,value";
+    }
+
+    /**
+     * One CSV row per phase and counter, see {@link #csvHeader()}.
+     */
+    public List<String> toCsv() {
+        List<String> rows = new ArrayList<>();
+        getPhases().forEach((name, phase) -> rows.add(String.format("phase,%s,%d,%d,%d,%d,",
+                name, phase.getCount(), phase.getWallNanos(), phase.getCpuNanos(), phase.getAllocatedBytes())));
+        getCounters().forEach((name, value) -> rows.add(String.format("counter,%s,,,,,%d", name, value)));
+
+        return rows;
+    }
+
+    @Override
+    public String toString() {
+        return toJson();
+    }
+
+    private static long cpuTime() {
+        return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : 0;
+    }
+
+    private static long allocatedBytes() {
+        if (THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean) {
+            var bean = (com.sun.management.ThreadMXBean) THREAD_MX_BEAN;
+            if (bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled()) {
+                return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+
+        return 0;
+    }
+
+    public static class Phase {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder wallNanos = new LongAdder();
+        private final LongAdder cpuNanos = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        private void record(long wallNanos, long cpuNanos, long allocatedBytes) {
+            this.count.increment();
+            this.wallNanos.add(wallNanos);
+            this.cpuNanos.add(cpuNanos);
+            this.allocatedBytes.add(allocatedBytes);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        public long getWallNanos() {
+            return wallNanos.sum();
+        }
+
+        public long getCpuNanos() {
+            return cpuNanos.sum();
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+    }
+}
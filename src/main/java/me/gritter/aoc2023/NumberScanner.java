@@ -0,0 +1,132 @@
+package me.gritter.aoc2023;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Cursor over a {@link CharSequence} which reads numbers in place, without creating substrings.
+ * <p>
+ * {@link #hasNext()}, {@link #nextInt()} and {@link #nextLong()} skip everything up to the next number, so any
+ * non-numeric text acts as a separator. A {@code -} directly in front of a digit is read as a sign. The other methods
+ * can be used to match the structure of the input where separators matter.
+ */
+public class NumberScanner {
+
+    private final CharSequence input;
+    private final int end;
+    private int position;
+
+    public NumberScanner(CharSequence input) {
+        this(input, 0, input.length());
+    }
+
+    public NumberScanner(CharSequence input, int start, int end) {
+        if (start < 0 || start > end || end > input.length()) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        this.input = input;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * Skips to the next number, returning whether there is one.
+     */
+    public boolean hasNext() {
+        while (position < end && !isNumberStart(position)) {
+            position++;
+        }
+
+        return position < end;
+    }
+
+    public int nextInt() {
+        long value = nextLong();
+        if (value != (int) value) {
+            throw new NumberFormatException("Value out of int range: " + value);
+        }
+
+        return (int) value;
+    }
+
+    public long nextLong() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        boolean negative = input.charAt(position) == '-';
+        if (negative) {
+            position++;
+        }
+
+        long value = 0;
+        while (position < end && isDigit(input.charAt(position))) {
+            int digit = input.charAt(position++) - '0';
+            if (value > (Long.MAX_VALUE - digit) / 10) {
+                throw new NumberFormatException("Value out of long range");
+            }
+
+            value = value * 10 + digit;
+        }
+
+        return negative ? -value : value;
+    }
+
+    /**
+     * Moves past the next occurrence of {@code c}.
+     *
+     * @throws NoSuchElementException if {@code c} doesn't occur in the remaining input
+     */
+    public NumberScanner skipPast(char c) {
+        while (position < end) {
+            if (input.charAt(position++) == c) {
+                return this;
+            }
+        }
+
+        throw new NoSuchElementException(String.valueOf(c));
+    }
+
+    public NumberScanner skipWhitespace() {
+        while (position < end && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+
+        return this;
+    }
+
+    /**
+     * Moves past {@code expected} if the remaining input starts with it.
+     */
+    public boolean consume(String expected) {
+        if (end - position < expected.length()) {
+            return false;
+        }
+
+        for (int i = 0; i < expected.length(); i++) {
+            if (input.charAt(position + i) != expected.charAt(i)) {
+                return false;
+            }
+        }
+
+        position += expected.length();
+        return true;
+    }
+
+    public boolean isAtEnd() {
+        return position >= end;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    private boolean isNumberStart(int index) {
+        char c = input.charAt(index);
+        return isDigit(c) || (c == '-' && index + 1 < end && isDigit(input.charAt(index + 1)));
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
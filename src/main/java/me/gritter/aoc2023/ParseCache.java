@@ -0,0 +1,199 @@
+package me.gritter.aoc2023;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.zip.CRC32C;
+
+/**
+ * Bounded LRU cache of parsed input models, so both stars (and repeated runs) can share a single parse of the same
+ * input.
+ * <p>
+ * Lookups are keyed by model name and the cheap identity of the input (see {@link InputSource#identity()}), so a hit
+ * doesn't read the input. On a miss, uncompressed files are hashed, so a copy of a file or a file which was touched
+ * without being changed still shares the cached model. Other inputs are never read just to find their key.
+ * <p>
+ * Cached models are shared between threads, so they must be immutable. Mutable models implement {@link Snapshottable}:
+ * the cache keeps the parsed model, and every caller gets its own snapshot of it. Models holding resources (e.g.
+ * off-heap grids) implement both {@link Snapshottable} and {@link AutoCloseable}: callers close their snapshots, and
+ * the cache closes the parsed model once it's evicted or cleared. Resources shared with snapshots stay alive until
+ * the last snapshot is closed.
+ */
+public class ParseCache {
+
+    private static final ParseCache SHARED = new ParseCache(64);
+
+    private final Map<Key, Object> entries;
+    private final Map<Key, Key> aliases; // Identity keys, and the key their model is cached under
+
+    public ParseCache(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                if (size() > maxSize) {
+                    release(eldest.getValue());
+                    return true;
+                }
+
+                return false;
+            }
+        };
+        this.aliases = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Key> eldest) {
+                return size() > 4 * maxSize;
+            }
+        };
+    }
+
+    public static ParseCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached model for this file, or parses the file and caches the result.
+     *
+     * @param model  name of the parsed model, unique for each parser
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String model, String file, Function<String, T> parser) {
+        InputSource source = InputSource.of(file);
+        Key identity;
+        try {
+            identity = new Key(model, source.identity());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        synchronized (this) {
+            Key key = aliases.get(identity);
+            Object value = key != null ? entries.get(key) : null;
+            if (value != null) {
+                return handOut((T) value);
+            }
+        }
+
+        Key key = contentKey(model, source).orElse(identity);
+        synchronized (this) {
+            Object value = entries.get(key);
+            if (value != null) {
+                aliases.put(identity, key);
+                return handOut((T) value);
+            }
+        }
+
+        // Parse outside the lock. Concurrent parses of the same file are harmless, the first one is kept.
+        T parsed = Objects.requireNonNull(parser.apply(file));
+
+        synchronized (this) {
+            Object value = entries.putIfAbsent(key, parsed);
+            aliases.put(identity, key);
+            if (value != null) {
+                release(parsed);
+                return handOut((T) value);
+            }
+
+            return handOut(parsed);
+        }
+    }
+
+    /**
+     * Closes a model which is no longer cached. Models which aren't handed out as snapshots are still in use by their
+     * callers, and are left alone.
+     */
+    private static void release(Object value) {
+        if (value instanceof Snapshottable && value instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) value).close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Couldn't release " + value + ".", e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T handOut(T value) {
+        return value instanceof Snapshottable ? ((Snapshottable<T>) value).snapshot() : value;
+    }
+
+    /**
+     * Keys uncompressed files by the hash of their contents. Other inputs would have to be read onto the heap (or
+     * decompressed) to be hashed, so they're only keyed by their identity.
+     */
+    private static Optional<Key> contentKey(String model, InputSource source) {
+        try {
+            if (!source.isMapped()) {
+                return Optional.empty();
+            }
+
+            CRC32C crc = new CRC32C();
+            long length = 0;
+            byte[] buffer = new byte[1 << 16];
+            try (InputStream in = source.open()) {
+                for (int read; (read = in.read(buffer)) != -1; ) {
+                    crc.update(buffer, 0, read);
+                    length += read;
+                }
+            }
+
+            return Optional.of(new Key(model, "crc32c:" + length + ":" + Long.toHexString(crc.getValue())));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes (and releases) all cached models.
+     */
+    public synchronized void clear() {
+        entries.values().forEach(ParseCache::release);
+        entries.clear();
+        aliases.clear();
+    }
+
+    /**
+     * A mutable model, of which every caller of {@link #get(String, String, Function)} gets its own snapshot.
+     * {@link #snapshot()} may be called concurrently.
+     */
+    public interface Snapshottable<T> {
+
+        T snapshot();
+    }
+
+    private static class Key {
+
+        private final String model;
+        private final String input;
+
+        public Key(String model, String input) {
+            this.model = model;
+            this.input = input;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return model.equals(key.model) && input.equals(key.input);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(model, input);
+        }
+    }
+}
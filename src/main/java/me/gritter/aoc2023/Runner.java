@@ -0,0 +1,250 @@
+package me.gritter.aoc2023;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Runs every star of every day and prints a timing report.
+ * <p>
+ * Usage: {@code Runner [--threads n] [--sequential] [--days 1,2,3] [--input puzzle] [--timeout seconds]
+ * [--metrics json|csv]}
+ * <p>
+ * By default all stars run concurrently on one thread per core. Use {@code --sequential} to run them one by one,
+ * which gives cleaner timings. With {@code --timeout}, stars which run longer are cancelled and reported as
+ * {@code TIMEOUT}. With {@code --metrics}, the {@link Metrics} reported by every star are dumped after the report.
+ * <p>
+ * The CPU time is that of the thread which runs the star only. Work a star hands off to other threads (e.g. the
+ * parallel chunks of Day 1) isn't counted, so it may be well below the wall time for parallel stars.
+ */
+public class Runner {
+
+    /** Prefix of the result of a star which failed. */
+    static final String ERROR = "ERROR";
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    private final int threads;
+    private final Set<Integer> days;
+    private final String input;
+    private final Duration timeout;
+
+    /**
+     * @param timeout  time budget of every star, or {@code null} for none
+     */
+    public Runner(int threads, Set<Integer> days, String input, Duration timeout) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
+        this.threads = threads;
+        this.days = days;
+        this.input = input;
+        this.timeout = timeout;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        Set<Integer> days = null;
+        String input = "puzzle";
+        Duration timeout = null;
+        String metricsFormat = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--sequential":
+                    threads = 1;
+                    break;
+                case "--days":
+                    days = Arrays.stream(args[++i].split(","))
+                            .map(Integer::parseInt)
+                            .collect(Collectors.toSet());
+                    break;
+                case "--input":
+                    input = args[++i];
+                    break;
+                case "--timeout":
+                    timeout = Duration.ofMillis((long) (Double.parseDouble(args[++i]) * 1000));
+                    break;
+                case "--metrics":
+                    metricsFormat = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        Runner runner = new Runner(threads, days, input, timeout);
+        List<RunResult> results = runner.run();
+        System.out.println(formatTable(results));
+
+        if ("json".equals(metricsFormat)) {
+            System.out.println(formatMetricsJson(results));
+        } else if ("csv".equals(metricsFormat)) {
+            System.out.println(formatMetricsCsv(results));
+        } else if (metricsFormat != null) {
+            throw new IllegalArgumentException("Unknown metrics format: " + metricsFormat);
+        }
+    }
+
+    public List<RunResult> run() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<RunResult>> futures = new ArrayList<>();
+            for (Map.Entry<Integer, Solution> entry : Solutions.all().entrySet()) {
+                int day = entry.getKey();
+                if (days != null && !days.contains(day)) {
+                    continue;
+                }
+
+                String file = Solutions.inputFile(day, input);
+                for (int star = 1; star <= 2; star++) {
+                    int _star = star;
+                    futures.add(executor.submit(() -> runStar(entry.getValue(), day, _star, file, timeout)));
+                }
+            }
+
+            List<RunResult> results = new ArrayList<>();
+            for (Future<RunResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static RunResult runStar(Solution solution, int day, int star, String file, Duration timeout) {
+        Metrics metrics = new Metrics();
+        SolveContext context = new SolveContext(timeout, SolveContext.ProgressListener.NONE);
+
+        long wallStart = System.nanoTime();
+        long cpuStart = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+
+        String result = Metrics.withMetrics(metrics, () -> metrics.phase("total", () -> {
+            try {
+                return String.valueOf(solution.solve(star, file, context));
+            } catch (CancellationException e) {
+                return context.isExpired() ? "TIMEOUT" : "CANCELLED";
+            } catch (RuntimeException e) {
+                return ERROR + ": " + e;
+            }
+        }));
+
+        long cpuNanos = THREAD_MX_BEAN.getCurrentThreadCpuTime() - cpuStart;
+        long wallNanos = System.nanoTime() - wallStart;
+
+        return new RunResult(day, star, result, wallNanos, cpuNanos, metrics);
+    }
+
+    public static String formatTable(List<RunResult> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%4s %5s %12s %16s  %s%n", "Day", "Star", "Wall (ms)", "Caller CPU (ms)", "Result"));
+
+        for (RunResult result : results) {
+            sb.append(String.format(Locale.ROOT, "%4d %5d %12.3f %16.3f  %s%n",
+                    result.getDay(),
+                    result.getStar(),
+                    result.getWallNanos() / 1e6,
+                    result.getCpuNanos() / 1e6,
+                    result.getResult()
+            ));
+        }
+
+        return sb.toString();
+    }
+
+    public static String formatMetricsJson(List<RunResult> results) {
+        StringJoiner json = new StringJoiner(",\n", "[\n", "\n]");
+        for (RunResult result : results) {
+            json.add(String.format("{\"day\":%d,\"star\":%d,\"metrics\":%s}",
+                    result.getDay(), result.getStar(), result.getMetrics().toJson()));
+        }
+
+        return json.toString();
+    }
+
+    public static String formatMetricsCsv(List<RunResult> results) {
+        StringJoiner csv = new StringJoiner("\n");
+        csv.add("day,star," + Metrics.csvHeader());
+        for (RunResult result : results) {
+            for (String row : result.getMetrics().toCsv()) {
+                csv.add(result.getDay() + "," + result.getStar() + "," + row);
+            }
+        }
+
+        return csv.toString();
+    }
+
+    public static class RunResult {
+
+        private final int day;
+        private final int star;
+        private final String result;
+        private final long wallNanos;
+        private final long cpuNanos;
+        private final Metrics metrics;
+
+        public RunResult(int day, int star, String result, long wallNanos, long cpuNanos, Metrics metrics) {
+            this.day = day;
+            this.star = star;
+            this.result = result;
+            this.wallNanos = wallNanos;
+            this.cpuNanos = cpuNanos;
+            this.metrics = metrics;
+        }
+
+        public int getDay() {
+            return day;
+        }
+
+        public int getStar() {
+            return star;
+        }
+
+        public String getResult() {
+            return result;
+        }
+
+        public long getWallNanos() {
+            return wallNanos;
+        }
+
+        /**
+         * Returns the CPU time of the calling thread, excluding the work done on other threads.
+         */
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public Metrics getMetrics() {
+            return metrics;
+        }
+
+        @Override
+        public String toString() {
+            return "RunResult{" +
+                    "day=" + day +
+                    ", star=" + star +
+                    ", result='" + result + '\'' +
+                    ", wallNanos=" + wallNanos +
+                    ", cpuNanos=" + cpuNanos +
+                    '}';
+        }
+    }
+}
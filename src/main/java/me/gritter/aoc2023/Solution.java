@@ -5,4 +5,24 @@ public interface Solution {
     long solution_star1(String file);
 
     long solution_star2(String file);
+
+    /**
+     * Solves a single star with {@code context} installed as the current {@link SolveContext}.
+     *
+     * @throws java.util.concurrent.CancellationException if the solve was cancelled or exceeded its deadline
+     */
+    default long solve(int star, String file, SolveContext context) {
+        if (star != 1 && star != 2) {
+            throw new IllegalArgumentException("No star " + star + ".");
+        }
+
+        return SolveContext.withContext(context, () -> star == 1 ? solution_star1(file) : solution_star2(file));
+    }
+
+    /**
+     * Solves both stars. Solutions which can calculate both answers from a single pass over the input override this.
+     */
+    default Answers solveBoth(String file) {
+        return new Answers(solution_star1(file), solution_star2(file));
+    }
 }
@@ -0,0 +1,62 @@
+package me.gritter.aoc2023;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+public class Solutions {
+
+    private static final int MAX_DAY = 25;
+
+    private Solutions() {
+    }
+
+    /**
+     * Discovers all {@code DayN} solutions on the classpath, ordered by day.
+     */
+    public static SortedMap<Integer, Solution> all() {
+        SortedMap<Integer, Solution> solutions = new TreeMap<>();
+        for (int day = 1; day <= MAX_DAY; day++) {
+            Class<?> solutionClass = findSolutionClass(day);
+            if (solutionClass != null) {
+                solutions.put(day, instantiate(solutionClass));
+            }
+        }
+
+        return Collections.unmodifiableSortedMap(solutions);
+    }
+
+    public static Solution byDay(int day) {
+        Class<?> solutionClass = findSolutionClass(day);
+        if (solutionClass == null) {
+            throw new IllegalArgumentException("No solution for day " + day + ".");
+        }
+
+        return instantiate(solutionClass);
+    }
+
+    public static String inputFile(int day, String input) {
+        return "day" + day + "-" + input + ".txt";
+    }
+
+    public static String puzzleFile(int day) {
+        return inputFile(day, "puzzle");
+    }
+
+    private static Class<?> findSolutionClass(int day) {
+        try {
+            Class<?> solutionClass = Class.forName(Solution.class.getPackageName() + ".Day" + day);
+            return Solution.class.isAssignableFrom(solutionClass) ? solutionClass : null;
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static Solution instantiate(Class<?> solutionClass) {
+        try {
+            return (Solution) solutionClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can't instantiate " + solutionClass.getName() + ".", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package me.gritter.aoc2023;
+
+/**
+ * Solves a single star of a single input, e.g. a compressed input on standard input:
+ * <pre>
+ *   zcat day5-inputs.txt.gz | java -cp &lt;classpath&gt; me.gritter.aoc2023.Solve 5 1 -
+ * </pre>
+ * Usage: {@code Solve <day> <star> [file]}, where the file defaults to standard input. See {@link InputSource} for
+ * the accepted files.
+ */
+public class Solve {
+
+    private Solve() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: Solve <day> <star> [file]");
+            System.exit(1);
+        }
+
+        Solution solution = Solutions.byDay(Integer.parseInt(args[0]));
+        int star = Integer.parseInt(args[1]);
+        String file = args.length > 2 ? args[2] : InputSource.STDIN;
+
+        System.out.println(solution.solve(star, file, new SolveContext()));
+    }
+}
@@ -0,0 +1,103 @@
+package me.gritter.aoc2023;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.function.Supplier;
+
+/**
+ * Deadline, cancellation flag and progress listener of a single solve.
+ * <p>
+ * Like {@link Metrics}, solutions use {@link #current()}, and callers install a context using
+ * {@link #withContext(SolveContext, Supplier)} or {@link Solution#solve(int, String, SolveContext)}. Long-running
+ * loops call {@link #checkpoint()}, which throws a {@link CancellationException} once the solve is cancelled or past
+ * its deadline, and report their progress using {@link #progress(long, long)}. Work running on other threads must
+ * capture the context before handing off, and poll that instance.
+ */
+public class SolveContext {
+
+    private static final SolveContext UNBOUNDED = new SolveContext();
+    private static final ThreadLocal<SolveContext> CURRENT = new ThreadLocal<>();
+
+    private final long deadline;
+    private final boolean hasDeadline;
+    private final ProgressListener listener;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Creates a context without a deadline or progress listener, which can only be cancelled.
+     */
+    public SolveContext() {
+        this(null, ProgressListener.NONE);
+    }
+
+    /**
+     * @param timeout  time after which the solve is cancelled, or {@code null} for no deadline
+     */
+    public SolveContext(Duration timeout, ProgressListener listener) {
+        this.hasDeadline = timeout != null;
+        this.deadline = hasDeadline ? System.nanoTime() + timeout.toNanos() : 0;
+        this.listener = listener;
+    }
+
+    public static SolveContext current() {
+        SolveContext context = CURRENT.get();
+        return context != null ? context : UNBOUNDED;
+    }
+
+    /**
+     * Runs {@code supplier} with {@code context} installed as the current context of this thread.
+     */
+    public static <T> T withContext(SolveContext context, Supplier<T> supplier) {
+        SolveContext previous = CURRENT.get();
+        CURRENT.set(context);
+        try {
+            return supplier.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled || isExpired();
+    }
+
+    public boolean isExpired() {
+        return hasDeadline && System.nanoTime() - deadline > 0;
+    }
+
+    /**
+     * Throws a {@link CancellationException} if this solve has been cancelled or is past its deadline.
+     */
+    public void checkpoint() {
+        if (cancelled) {
+            throw new CancellationException("Solve was cancelled.");
+        }
+        if (isExpired()) {
+            throw new CancellationException("Solve exceeded its deadline.");
+        }
+    }
+
+    /**
+     * Reports progress to the listener and checks for cancellation.
+     *
+     * @param total  the total amount of work, or {@code -1} if unknown
+     */
+    public void progress(long done, long total) {
+        listener.onProgress(done, total);
+        checkpoint();
+    }
+
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        ProgressListener NONE = (done, total) -> {
+        };
+
+        void onProgress(long done, long total);
+    }
+}
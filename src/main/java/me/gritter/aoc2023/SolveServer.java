@@ -0,0 +1,298 @@
+package me.gritter.aoc2023;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Long-running server which solves requests on a warm JVM, avoiding the JVM startup and JIT warm-up of a fresh
+ * process per input.
+ * <p>
+ * Usage: {@code SolveServer [--port n] [--threads n] [--timeout seconds] [--input-dir dir]}
+ * <p>
+ * The server listens on the loopback interface only. Clients send one request per line, {@code <day> <star> <file>},
+ * where the file is a resource name (e.g. {@code day5-puzzle.txt}) or the name of a file directly in the input
+ * directory. Other paths are refused, so clients can't read arbitrary files. Requests run concurrently on a shared
+ * worker pool and every result is streamed back as soon as it's done, so responses may arrive out of order:
+ * {@code <day> <star> <file> <wall micros> <result>}. Requests exceeding the timeout are cancelled and answered with a
+ * {@code TIMEOUT} result. Failures are answered with {@code ERROR <code>}, one of the {@link ErrorCode}s; the details
+ * are only logged by the server, as exception messages may quote the input.
+ * After the client closes its side of the connection, the remaining results are sent and the connection is closed.
+ */
+public class SolveServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 2023;
+
+    private final Map<Integer, Solution> solutions = Solutions.all();
+    private final Duration timeout;
+    private final Path inputDir;
+    private final ServerSocket serverSocket;
+    private final ExecutorService workers;
+    private final ExecutorService connections = Executors.newCachedThreadPool();
+
+    /**
+     * @param timeout   time budget of every request, or {@code null} for none
+     * @param inputDir  directory of which the files may be solved besides the resources, or {@code null} for none
+     */
+    public SolveServer(int port, int threads, Duration timeout, Path inputDir) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+
+        this.timeout = timeout;
+        this.inputDir = inputDir == null ? null : inputDir.toRealPath();
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.workers = Executors.newFixedThreadPool(threads);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = DEFAULT_PORT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        Duration timeout = null;
+        Path inputDir = null;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--timeout":
+                    timeout = Duration.ofMillis((long) (Double.parseDouble(args[++i]) * 1000));
+                    break;
+                case "--input-dir":
+                    inputDir = Path.of(args[++i]);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown argument: " + args[i]);
+            }
+        }
+
+        SolveServer server = new SolveServer(port, threads, timeout, inputDir);
+        System.out.println("Listening on " + server.serverSocket.getLocalSocketAddress());
+        server.serve();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Accepts connections until the server is closed.
+     */
+    public void serve() throws IOException {
+        while (!serverSocket.isClosed()) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (SocketException e) {
+                if (serverSocket.isClosed()) {
+                    return;
+                }
+
+                throw e;
+            }
+
+            connections.execute(() -> handle(socket));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), UTF_8))) {
+            List<Future<?>> pending = new ArrayList<>();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                try {
+                    Request request = Request.parse(line, solutions, inputDir);
+                    pending.add(workers.submit(() -> respond(out, solve(request))));
+                } catch (RequestException e) {
+                    respond(out, "ERROR " + e.getCode());
+                }
+            }
+
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        } catch (IOException e) {
+            // The client went away
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private String solve(Request request) {
+        Runner.RunResult result = Runner.runStar(
+                request.getSolution(), request.getDay(), request.getStar(), request.getFile(), timeout);
+
+        if (result.getResult().startsWith(Runner.ERROR)) {
+            System.err.println(request.getName() + " day " + request.getDay() + " star " + request.getStar() + ": "
+                    + result.getResult());
+
+            return "ERROR " + ErrorCode.SOLVE_FAILED;
+        }
+
+        return request.getDay() + " " + request.getStar() + " " + request.getName() + " "
+                + result.getWallNanos() / 1000 + " " + result.getResult();
+    }
+
+    private static void respond(Writer out, String response) {
+        synchronized (out) {
+            try {
+                out.write(response + "\n");
+                out.flush();
+            } catch (IOException e) {
+                // The client went away, the remaining responses are dropped
+            }
+        }
+    }
+
+    /**
+     * Error codes answered instead of a result.
+     */
+    public enum ErrorCode {
+        /** The request isn't {@code <day> <star> <file>}. */
+        BAD_REQUEST,
+        /** There's no solution for the day, or no such star. */
+        NO_SOLUTION,
+        /** The file is neither a resource nor a file in the input directory. */
+        INPUT_NOT_ALLOWED,
+        /** The solution failed on the input. */
+        SOLVE_FAILED
+    }
+
+    private static class RequestException extends IllegalArgumentException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ErrorCode code;
+
+        private RequestException(ErrorCode code) {
+            super(code.name());
+            this.code = code;
+        }
+
+        public ErrorCode getCode() {
+            return code;
+        }
+    }
+
+    private static class Request {
+
+        private static final Pattern RESOURCE_NAME = Pattern.compile("day\\d+-\\w+\\.txt");
+
+        private final int day;
+        private final int star;
+        private final String name;
+        private final String file;
+        private final Solution solution;
+
+        private Request(int day, int star, String name, String file, Solution solution) {
+            this.day = day;
+            this.star = star;
+            this.name = name;
+            this.file = file;
+            this.solution = solution;
+        }
+
+        public static Request parse(String line, Map<Integer, Solution> solutions, Path inputDir) {
+            String[] parts = line.trim().split("\\s+", 3);
+            if (parts.length != 3) {
+                throw new RequestException(ErrorCode.BAD_REQUEST);
+            }
+
+            int day;
+            int star;
+            try {
+                day = Integer.parseInt(parts[0]);
+                star = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                throw new RequestException(ErrorCode.BAD_REQUEST);
+            }
+
+            Solution solution = solutions.get(day);
+            if (solution == null || (star != 1 && star != 2)) {
+                throw new RequestException(ErrorCode.NO_SOLUTION);
+            }
+
+            return new Request(day, star, parts[2], resolve(parts[2], inputDir), solution);
+        }
+
+        /**
+         * Resolves the requested name to a resource name, or to a path directly in the input directory.
+         */
+        private static String resolve(String name, Path inputDir) {
+            if (RESOURCE_NAME.matcher(name).matches() && InputSource.class.getResource(name) != null) {
+                return name;
+            }
+
+            if (inputDir != null && !name.equals(".") && !name.equals("..")
+                    && name.indexOf('/') < 0 && name.indexOf('\\') < 0) {
+                try {
+                    Path path = inputDir.resolve(name);
+                    // Symbolic links may point out of the input directory
+                    if (Files.isRegularFile(path) && path.toRealPath().getParent().equals(inputDir)) {
+                        return path.toString();
+                    }
+                } catch (IOException | InvalidPathException e) {
+                    // Refused below
+                }
+            }
+
+            throw new RequestException(ErrorCode.INPUT_NOT_ALLOWED);
+        }
+
+        public int getDay() {
+            return day;
+        }
+
+        public int getStar() {
+            return star;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public Solution getSolution() {
+            return solution;
+        }
+    }
+}
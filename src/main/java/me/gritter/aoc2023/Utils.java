@@ -2,21 +2,30 @@ package me.gritter.aoc2023;
 
 import org.apache.commons.io.IOUtils;
 
-import java.io.IOException;
-import java.io.UncheckedIOException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
-import static java.util.Objects.requireNonNull;
 
+/**
+ * Reads the inputs of the solutions. See {@link InputSource} for the file names which are accepted.
+ */
 public class Utils {
 
+    public static final int BATCH_SIZE = 1024;
+
     private Utils() {
     }
 
     public static String readFile(String file) {
-        try {
-            return IOUtils.toString(requireNonNull(Utils.class.getResourceAsStream(file)), UTF_8);
+        try (InputStream in = openFile(file)) {
+            return IOUtils.toString(in, UTF_8);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -25,4 +34,91 @@ public class Utils {
     public static Stream<String> readLines(String file) {
         return Stream.of(readFile(file).split("\n"));
     }
+
+    /**
+     * Lazily reads the lines of a file, without loading the whole file into memory. Empty lines are skipped, so (like
+     * {@link #readLines(String)}) an input ending in blank lines has no trailing empty lines.
+     * The returned stream holds an open reader and must be closed, e.g. using try-with-resources.
+     */
+    public static Stream<String> streamLines(String file) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(openFile(file), UTF_8));
+
+        return reader.lines()
+                .filter(line -> !line.isEmpty())
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Parses streamed lines in batches of at most {@link #BATCH_SIZE}, each in a {@code parse} phase of the current
+     * {@link Metrics}. Streaming solutions solve every batch in a {@code solve} phase, so both phases are timed while
+     * memory stays bounded by a batch.
+     */
+    public static <T> Iterator<List<T>> parseBatches(Stream<String> lines, Function<String, T> parser) {
+        Metrics metrics = Metrics.current();
+        Iterator<String> iterator = lines.iterator();
+
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<T> next() {
+                if (!iterator.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                return metrics.phase("parse", () -> {
+                    List<T> batch = new ArrayList<>(BATCH_SIZE);
+                    while (batch.size() < BATCH_SIZE && iterator.hasNext()) {
+                        batch.add(parser.apply(iterator.next()));
+                    }
+
+                    return batch;
+                });
+            }
+        };
+    }
+
+    /**
+     * Returns the contents of a file as a read-only byte buffer. Plain files are memory-mapped, other inputs (e.g.
+     * resources packaged inside a jar, compressed files or standard input) are read onto the heap.
+     */
+    public static ByteBuffer mapFile(String file) {
+        try {
+            return InputSource.of(file).map();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns whether {@link #mapFile(String)} memory-maps the file, rather than reading it onto the heap.
+     */
+    public static boolean isMapped(String file) {
+        try {
+            return InputSource.of(file).isMapped();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static InputGrid mapGrid(String file) {
+        return InputGrid.of(mapFile(file));
+    }
+
+    private static InputStream openFile(String file) {
+        try {
+            return InputSource.of(file).open();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
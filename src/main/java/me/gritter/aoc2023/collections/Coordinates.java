@@ -0,0 +1,74 @@
+package me.gritter.aoc2023.collections;
+
+/**
+ * Packs a 2D coordinate and a small state (e.g. a direction) into a single {@code long}, so coordinates can be stored
+ * in primitive collections instead of allocating a point object for each of them.
+ * <p>
+ * Layout, from the most significant bit: 28 bits {@code x}, 28 bits {@code y}, 8 bits {@code state}. Coordinates are
+ * signed and range from -2^27 to 2^27-1, states from 0 to 255. A coordinate without a state has state 0.
+ */
+public final class Coordinates {
+
+    public static final int MIN_COORDINATE = -(1 << 27);
+    public static final int MAX_COORDINATE = (1 << 27) - 1;
+    public static final int MAX_STATE = 255;
+
+    private static final int STATE_BITS = 8;
+    private static final int COORDINATE_BITS = 28;
+    private static final long COORDINATE_MASK = (1L << COORDINATE_BITS) - 1;
+
+    private Coordinates() {
+    }
+
+    public static long pack(int x, int y) {
+        return pack(x, y, 0);
+    }
+
+    public static long pack(int x, int y, int state) {
+        if (x < MIN_COORDINATE || x > MAX_COORDINATE || y < MIN_COORDINATE || y > MAX_COORDINATE) {
+            throw new IllegalArgumentException("Coordinate (" + x + ", " + y + ") is out of range");
+        }
+        if (state < 0 || state > MAX_STATE) {
+            throw new IllegalArgumentException("State " + state + " is out of range");
+        }
+
+        return (long) x << (COORDINATE_BITS + STATE_BITS)
+                | (y & COORDINATE_MASK) << STATE_BITS
+                | state;
+    }
+
+    public static int x(long packed) {
+        return (int) (packed >> (COORDINATE_BITS + STATE_BITS));
+    }
+
+    public static int y(long packed) {
+        // Shift the sign bit of y into the sign bit of the long, then back
+        return (int) (packed << COORDINATE_BITS >> (COORDINATE_BITS + STATE_BITS));
+    }
+
+    public static int state(long packed) {
+        return (int) (packed & MAX_STATE);
+    }
+
+    /**
+     * Returns the coordinate without its state.
+     */
+    public static long position(long packed) {
+        return packed & ~(long) MAX_STATE;
+    }
+
+    public static long withState(long packed, int state) {
+        return pack(x(packed), y(packed), state);
+    }
+
+    /**
+     * Returns the coordinate moved by {@code (dx, dy)}, keeping its state.
+     */
+    public static long translate(long packed, int dx, int dy) {
+        return pack(x(packed) + dx, y(packed) + dy, state(packed));
+    }
+
+    public static String toString(long packed) {
+        return "(" + x(packed) + ", " + y(packed) + (state(packed) != 0 ? ", " + state(packed) : "") + ")";
+    }
+}
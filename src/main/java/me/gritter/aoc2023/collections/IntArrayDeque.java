@@ -0,0 +1,122 @@
+package me.gritter.aoc2023.collections;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Double-ended queue of {@code int} values in a growable ring buffer. Elements can also be read and replaced by their
+ * position from the head of the queue.
+ */
+public class IntArrayDeque {
+
+    private int[] values;
+    private int head;
+    private int size;
+
+    public IntArrayDeque() {
+        this(16);
+    }
+
+    public IntArrayDeque(int initialCapacity) {
+        this.values = new int[Integer.highestOneBit(Math.max(2, initialCapacity - 1)) * 2];
+    }
+
+    public void addFirst(int value) {
+        ensureCapacity();
+        head = (head - 1) & (values.length - 1);
+        values[head] = value;
+        size++;
+    }
+
+    public void addLast(int value) {
+        ensureCapacity();
+        values[(head + size) & (values.length - 1)] = value;
+        size++;
+    }
+
+    public int pollFirst() {
+        int value = peekFirst();
+        head = (head + 1) & (values.length - 1);
+        size--;
+        return value;
+    }
+
+    public int pollLast() {
+        int value = peekLast();
+        size--;
+        return value;
+    }
+
+    public int peekFirst() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return values[head];
+    }
+
+    public int peekLast() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return values[(head + size - 1) & (values.length - 1)];
+    }
+
+    /**
+     * Returns the value at {@code index} from the head of the queue.
+     */
+    public int get(int index) {
+        checkIndex(index);
+        return values[(head + index) & (values.length - 1)];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        values[(head + index) & (values.length - 1)] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    public int[] toArray() {
+        int[] result = new int[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = values[(head + i) & (values.length - 1)];
+        }
+
+        return result;
+    }
+
+    private void ensureCapacity() {
+        if (size < values.length) {
+            return;
+        }
+
+        // Unwrap the ring into a twice as large array
+        int[] grown = toArray();
+        values = Arrays.copyOf(grown, values.length * 2);
+        head = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
@@ -0,0 +1,110 @@
+package me.gritter.aoc2023.collections;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Growable array of {@code int} values.
+ */
+public class IntArrayList {
+
+    private int[] values;
+    private int size;
+
+    public IntArrayList() {
+        this(16);
+    }
+
+    public IntArrayList(int initialCapacity) {
+        this.values = new int[Math.max(1, initialCapacity)];
+    }
+
+    public static IntArrayList of(int... values) {
+        IntArrayList list = new IntArrayList(values.length);
+        System.arraycopy(values, 0, list.values, 0, values.length);
+        list.size = values.length;
+        return list;
+    }
+
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        values[size++] = value;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        values[index] = value;
+    }
+
+    public int removeLast() {
+        if (size == 0) {
+            throw new IllegalStateException("List is empty.");
+        }
+
+        return values[--size];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(values[i]);
+        }
+    }
+
+    public IntStream stream() {
+        return Arrays.stream(values, 0, size);
+    }
+
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        IntArrayList that = (IntArrayList) o;
+        return Arrays.equals(values, 0, size, that.values, 0, that.size);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + values[i];
+        }
+
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
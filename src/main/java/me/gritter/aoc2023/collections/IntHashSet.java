@@ -0,0 +1,195 @@
+package me.gritter.aoc2023.collections;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Set of {@code int} values using open addressing with linear probing, so values are never boxed. Empty slots hold
+ * 0, the value 0 itself is tracked separately.
+ */
+public class IntHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private int[] keys;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean containsZero;
+
+    public IntHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize  number of values the set can hold without growing
+     */
+    public IntHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds {@code value}, returning {@code false} if it was already present.
+     */
+    public boolean add(int value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = slot(value);
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return false;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = value;
+        if (++size > maxSize()) {
+            allocate(keys.length * 2);
+        }
+
+        return true;
+    }
+
+    public boolean contains(int value) {
+        if (value == 0) {
+            return containsZero;
+        }
+
+        int slot = slot(value);
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return true;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes {@code value}, returning {@code false} if it wasn't present.
+     */
+    public boolean remove(int value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = slot(value);
+        while (keys[slot] != value) {
+            if (keys[slot] == 0) {
+                return false;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        // Shift later values of the probe sequence back, so lookups don't stop at the emptied slot
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+        }
+
+        keys[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public void forEach(IntConsumer consumer) {
+        if (containsZero) {
+            consumer.accept(0);
+        }
+
+        for (int key : keys) {
+            if (key != 0) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    public int[] toArray() {
+        int[] values = new int[size];
+        int[] i = {0};
+        forEach(value -> values[i[0]++] = value);
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    private int slot(int value) {
+        // Fibonacci hashing: the top bits of the product depend on all bits of the value
+        return (value * 0x9E3779B9) >>> shift;
+    }
+
+    private int maxSize() {
+        return keys.length / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity *= 2;
+        }
+
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        int[] oldKeys = keys;
+
+        keys = new int[capacity];
+        mask = capacity - 1;
+        shift = 32 - Integer.numberOfTrailingZeros(capacity);
+
+        if (oldKeys != null) {
+            for (int key : oldKeys) {
+                if (key != 0) {
+                    int slot = slot(key);
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+
+                    keys[slot] = key;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "IntHashSet{" +
+                "size=" + size +
+                '}';
+    }
+}
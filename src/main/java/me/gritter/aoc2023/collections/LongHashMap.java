@@ -0,0 +1,166 @@
+package me.gritter.aoc2023.collections;
+
+import java.util.Arrays;
+
+/**
+ * Map from {@code long} keys to {@code long} values using open addressing with linear probing, so neither is ever
+ * boxed. Empty slots hold key 0, the entry of key 0 itself is tracked separately.
+ */
+public class LongHashMap {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int shift;
+    private int size;
+
+    private boolean containsZero;
+    private long zeroValue;
+
+    public LongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize  number of entries the map can hold without growing
+     */
+    public LongHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity *= 2;
+        }
+
+        allocate(capacity);
+    }
+
+    /**
+     * Returns the value of {@code key}, or {@code defaultValue} if the map doesn't contain it.
+     */
+    public long get(long key, long defaultValue) {
+        if (key == 0) {
+            return containsZero ? zeroValue : defaultValue;
+        }
+
+        int slot = find(key);
+        return keys[slot] != 0 ? values[slot] : defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? containsZero : keys[find(key)] != 0;
+    }
+
+    public void put(long key, long value) {
+        if (key == 0) {
+            if (!containsZero) {
+                containsZero = true;
+                size++;
+            }
+
+            zeroValue = value;
+            return;
+        }
+
+        int slot = find(key);
+        values[slot] = value;
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            if (++size > keys.length / 4 * 3) {
+                allocate(keys.length * 2);
+            }
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the value of {@code key}, which starts at 0, and returns the new value.
+     */
+    public long addTo(long key, long delta) {
+        long value = get(key, 0) + delta;
+        put(key, value);
+        return value;
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        if (containsZero) {
+            consumer.accept(0, zeroValue);
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the keys in ascending order.
+     */
+    public long[] sortedKeys() {
+        long[] result = new long[size];
+        int[] i = {0};
+        forEach((key, value) -> result[i[0]++] = key);
+        Arrays.sort(result);
+        return result;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Returns the slot holding {@code key}, or the empty slot where it belongs.
+     */
+    private int find(long key) {
+        // Fibonacci hashing: the top bits of the product depend on all bits of the key
+        int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+
+        if (oldKeys != null) {
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashMap{" +
+                "size=" + size +
+                '}';
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+
+        void accept(long key, long value);
+    }
+}
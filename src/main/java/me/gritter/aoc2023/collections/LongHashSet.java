@@ -0,0 +1,195 @@
+package me.gritter.aoc2023.collections;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of {@code long} values using open addressing with linear probing, so values are never boxed. Empty slots hold
+ * 0, the value 0 itself is tracked separately.
+ */
+public class LongHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize  number of values the set can hold without growing
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+
+    /**
+     * Adds {@code value}, returning {@code false} if it was already present.
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = slot(value);
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return false;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = value;
+        if (++size > maxSize()) {
+            allocate(keys.length * 2);
+        }
+
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+
+        int slot = slot(value);
+        while (keys[slot] != 0) {
+            if (keys[slot] == value) {
+                return true;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes {@code value}, returning {@code false} if it wasn't present.
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!containsZero) {
+                return false;
+            }
+
+            containsZero = false;
+            size--;
+            return true;
+        }
+
+        int slot = slot(value);
+        while (keys[slot] != value) {
+            if (keys[slot] == 0) {
+                return false;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        // Shift later values of the probe sequence back, so lookups don't stop at the emptied slot
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != 0; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                gap = next;
+            }
+        }
+
+        keys[gap] = 0;
+        size--;
+        return true;
+    }
+
+    public void forEach(LongConsumer consumer) {
+        if (containsZero) {
+            consumer.accept(0);
+        }
+
+        for (long key : keys) {
+            if (key != 0) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size];
+        int[] i = {0};
+        forEach(value -> values[i[0]++] = value);
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0);
+        containsZero = false;
+        size = 0;
+    }
+
+    private int slot(long value) {
+        // Fibonacci hashing: the top bits of the product depend on all bits of the value
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private int maxSize() {
+        return keys.length / 4 * 3;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity / 4 * 3 < expectedSize) {
+            capacity *= 2;
+        }
+
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        long[] oldKeys = keys;
+
+        keys = new long[capacity];
+        mask = capacity - 1;
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+
+        if (oldKeys != null) {
+            for (long key : oldKeys) {
+                if (key != 0) {
+                    int slot = slot(key);
+                    while (keys[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+
+                    keys[slot] = key;
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LongHashSet{" +
+                "size=" + size +
+                '}';
+    }
+}
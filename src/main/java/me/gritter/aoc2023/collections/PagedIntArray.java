@@ -0,0 +1,75 @@
+package me.gritter.aoc2023.collections;
+
+import java.util.Arrays;
+
+/**
+ * Fixed length array of {@code int} values, allocated in pages on the first write to them. Unwritten values read as
+ * the default value, so a large array of which only a part is used (e.g. the costs of the states reached by a search)
+ * only takes memory for the pages it touches.
+ */
+public class PagedIntArray {
+
+    private static final int PAGE_BITS = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int[][] pages;
+    private final int length;
+    private final int defaultValue;
+    private int allocatedPages;
+
+    public PagedIntArray(int length, int defaultValue) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+
+        this.pages = new int[(int) (((long) length + PAGE_SIZE - 1) >>> PAGE_BITS)][];
+        this.length = length;
+        this.defaultValue = defaultValue;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        int[] page = pages[index >>> PAGE_BITS];
+        return page == null ? defaultValue : page[index & PAGE_MASK];
+    }
+
+    public void set(int index, int value) {
+        checkIndex(index);
+        int[] page = pages[index >>> PAGE_BITS];
+        if (page == null) {
+            page = pages[index >>> PAGE_BITS] = new int[PAGE_SIZE];
+            if (defaultValue != 0) {
+                Arrays.fill(page, defaultValue);
+            }
+            allocatedPages++;
+        }
+
+        page[index & PAGE_MASK] = value;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of values held in allocated pages.
+     */
+    public long allocatedLength() {
+        return (long) allocatedPages << PAGE_BITS;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PagedIntArray{" +
+                "length=" + length +
+                ", allocatedPages=" + allocatedPages +
+                '}';
+    }
+}
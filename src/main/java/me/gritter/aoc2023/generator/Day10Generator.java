@@ -0,0 +1,95 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Size is the side of the square field. The loop runs along the top and right edges and then zigzags back along the
+ * bottom in teeth one tile wide, so it encloses tiles both above and in between the teeth. The remaining tiles are
+ * filled with loose pipes.
+ */
+public class Day10Generator implements InputGenerator {
+
+    private static final String PIPES = "|-LJ7F";
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        Generators.requireAtLeast(size, 6);
+
+        char[][] tiles = new char[size][size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                tiles[y][x] = random.nextDouble() < 0.4 ? Generators.pick(random, PIPES) : '.';
+            }
+        }
+
+        List<int[]> loop = loop(size);
+        for (int i = 0; i < loop.size(); i++) {
+            int[] previous = loop.get((i + loop.size() - 1) % loop.size());
+            int[] current = loop.get(i);
+            int[] next = loop.get((i + 1) % loop.size());
+
+            tiles[current[1]][current[0]] = pipe(previous, current, next);
+        }
+
+        // The start connects in every direction, so it must not touch pipes outside of the loop
+        int[] start = loop.get(0);
+        tiles[start[1]][start[0]] = 'S';
+        tiles[start[1] - 1][start[0]] = '.';
+        tiles[start[1]][start[0] - 1] = '.';
+
+        Generators.writeGrid(out, size, size, (x, y) -> tiles[y][x]);
+    }
+
+    private List<int[]> loop(int size) {
+        int left = 1;
+        int top = 1;
+        int right = size - 2;
+        int bottom = size - 2;
+
+        List<int[]> corners = new ArrayList<>();
+        corners.add(new int[]{left, top});
+        corners.add(new int[]{right, top});
+        corners.add(new int[]{right, bottom});
+
+        int toothY = bottom;
+        for (int x = right - 2; x >= left + 2; x -= 2) {
+            int otherY = toothY == bottom ? top + 2 : bottom;
+            corners.add(new int[]{x, toothY});
+            corners.add(new int[]{x, otherY});
+            toothY = otherY;
+        }
+        corners.add(new int[]{left, toothY});
+
+        List<int[]> loop = new ArrayList<>();
+        for (int i = 0; i < corners.size(); i++) {
+            int[] from = corners.get(i);
+            int[] to = corners.get((i + 1) % corners.size());
+            int dx = Integer.signum(to[0] - from[0]);
+            int dy = Integer.signum(to[1] - from[1]);
+
+            for (int x = from[0], y = from[1]; x != to[0] || y != to[1]; x += dx, y += dy) {
+                loop.add(new int[]{x, y});
+            }
+        }
+
+        return loop;
+    }
+
+    private char pipe(int[] previous, int[] current, int[] next) {
+        boolean north = previous[1] < current[1] || next[1] < current[1];
+        boolean south = previous[1] > current[1] || next[1] > current[1];
+        boolean east = previous[0] > current[0] || next[0] > current[0];
+        boolean west = previous[0] < current[0] || next[0] < current[0];
+
+        if (north && south) return '|';
+        if (east && west) return '-';
+        if (north && east) return 'L';
+        if (north && west) return 'J';
+        if (south && west) return '7';
+        return 'F';
+    }
+}
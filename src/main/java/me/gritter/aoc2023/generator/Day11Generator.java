@@ -0,0 +1,30 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Size is the side of the square image. About one in ten rows and columns is left empty to be expanded, the other
+ * cells hold a galaxy with a small chance.
+ */
+public class Day11Generator implements InputGenerator {
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        boolean[] emptyRows = emptyLines(size, random);
+        boolean[] emptyColumns = emptyLines(size, random);
+
+        Generators.writeGrid(out, size, size, (x, y) ->
+                !emptyRows[y] && !emptyColumns[x] && random.nextDouble() < 0.02 ? '#' : '.');
+    }
+
+    private boolean[] emptyLines(int size, Random random) {
+        boolean[] empty = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            empty[i] = random.nextDouble() < 0.1;
+        }
+
+        return empty;
+    }
+}
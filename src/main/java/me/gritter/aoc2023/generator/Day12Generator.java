@@ -0,0 +1,47 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Size is the number of condition records. Every record is derived from a random arrangement of five to twenty
+ * springs, after which some springs are replaced by unknowns, so it always has at least one valid arrangement.
+ */
+public class Day12Generator implements InputGenerator {
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            char[] springs = new char[5 + random.nextInt(16)];
+            for (int spring = 0; spring < springs.length; spring++) {
+                springs[spring] = random.nextDouble() < 0.4 ? '#' : '.';
+            }
+            springs[random.nextInt(springs.length)] = '#';
+
+            StringJoiner groups = new StringJoiner(",");
+            int group = 0;
+            for (char spring : springs) {
+                if (spring == '#') {
+                    group++;
+                } else if (group > 0) {
+                    groups.add(Integer.toString(group));
+                    group = 0;
+                }
+            }
+            if (group > 0) {
+                groups.add(Integer.toString(group));
+            }
+
+            for (int spring = 0; spring < springs.length; spring++) {
+                if (random.nextDouble() < 0.4) {
+                    springs[spring] = '?';
+                }
+            }
+
+            out.write(springs);
+            out.write(" " + groups + "\n");
+        }
+    }
+}
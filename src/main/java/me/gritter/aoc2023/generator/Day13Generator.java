@@ -0,0 +1,83 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Size is the number of patterns. Every pattern has exactly one horizontal reflection along its bottom two rows, and
+ * a vertical reflection which is broken by a single smudge in its top row.
+ */
+public class Day13Generator implements InputGenerator {
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.write('\n');
+            }
+
+            char[][] pattern;
+            do {
+                pattern = pattern(random);
+            } while (countReflections(pattern) != 1);
+
+            for (char[] row : pattern) {
+                out.write(row);
+                out.write('\n');
+            }
+        }
+    }
+
+    private char[][] pattern(Random random) {
+        int width = 5 + random.nextInt(13);
+        int height = 5 + random.nextInt(13);
+        int reflection = 1 + random.nextInt(width - 1);
+
+        char[][] pattern = new char[height][width];
+        for (char[] row : pattern) {
+            for (int x = 0; x < width; x++) {
+                int mirrored = 2 * reflection - 1 - x;
+                row[x] = mirrored < x && mirrored >= 0
+                        ? row[mirrored]
+                        : random.nextBoolean() ? '#' : '.';
+            }
+        }
+
+        pattern[height - 1] = pattern[height - 2].clone();
+
+        char[] smudged = pattern[0];
+        smudged[reflection - 1] = smudged[reflection - 1] == '#' ? '.' : '#';
+
+        return pattern;
+    }
+
+    private int countReflections(char[][] pattern) {
+        int width = pattern[0].length;
+        int height = pattern.length;
+        int count = 0;
+
+        for (int reflection = 1; reflection < height; reflection++) {
+            boolean reflects = true;
+            for (int y = reflection - 1, mirrored = reflection; reflects && y >= 0 && mirrored < height; y--, mirrored++) {
+                reflects = Arrays.equals(pattern[y], pattern[mirrored]);
+            }
+
+            if (reflects) count++;
+        }
+
+        for (int reflection = 1; reflection < width; reflection++) {
+            boolean reflects = true;
+            for (int x = reflection - 1, mirrored = reflection; reflects && x >= 0 && mirrored < width; x--, mirrored++) {
+                for (char[] row : pattern) {
+                    reflects &= row[x] == row[mirrored];
+                }
+            }
+
+            if (reflects) count++;
+        }
+
+        return count;
+    }
+}
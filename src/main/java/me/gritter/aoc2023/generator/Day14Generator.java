@@ -0,0 +1,21 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Size is the side of the square dish, filled with rounded and cube-shaped rocks.
+ */
+public class Day14Generator implements InputGenerator {
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        Generators.writeGrid(out, size, size, (x, y) -> {
+            double roll = random.nextDouble();
+            if (roll < 0.2) return 'O';
+            if (roll < 0.35) return '#';
+            return '.';
+        });
+    }
+}
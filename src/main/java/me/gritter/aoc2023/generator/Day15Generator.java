@@ -0,0 +1,34 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Size is the number of steps in the initialization sequence. Steps use about one label per four steps, so labels
+ * are replaced and removed as well as added.
+ */
+public class Day15Generator implements InputGenerator {
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        String[] labels = new String[Math.max(1, size / 4)];
+        for (int i = 0; i < labels.length; i++) {
+            char[] label = new char[2 + random.nextInt(5)];
+            for (int c = 0; c < label.length; c++) {
+                label[c] = (char) ('a' + random.nextInt(26));
+            }
+
+            labels[i] = new String(label);
+        }
+
+        for (int step = 0; step < size; step++) {
+            if (step > 0) {
+                out.write(',');
+            }
+
+            out.write(labels[random.nextInt(labels.length)]);
+            out.write(random.nextDouble() < 0.3 ? "-" : "=" + (1 + random.nextInt(9)));
+        }
+    }
+}
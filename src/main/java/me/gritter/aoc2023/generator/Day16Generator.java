@@ -0,0 +1,19 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Size is the side of the square contraption. One in ten tiles holds a mirror or splitter.
+ */
+public class Day16Generator implements InputGenerator {
+
+    private static final String DEVICES = "/\\|-";
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        Generators.writeGrid(out, size, size, (x, y) ->
+                random.nextDouble() < 0.1 ? Generators.pick(random, DEVICES) : '.');
+    }
+}
@@ -0,0 +1,16 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Size is the side of the square map, every block has a heat loss of one to nine.
+ */
+public class Day17Generator implements InputGenerator {
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        Generators.writeGrid(out, size, size, (x, y) -> '1' + random.nextInt(9));
+    }
+}
@@ -0,0 +1,47 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Size is the number of calibration lines. Every line mixes letters, digits and spelled out digits, and contains at
+ * least one digit.
+ */
+public class Day1Generator implements InputGenerator {
+
+    private static final String[] DIGIT_NAMES = {"one", "two", "three", "four", "five", "six", "seven", "eight", "nine"};
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            line.setLength(0);
+            boolean hasDigit = false;
+
+            int parts = 1 + random.nextInt(6);
+            for (int part = 0; part < parts; part++) {
+                switch (random.nextInt(3)) {
+                    case 0:
+                        line.append((char) ('1' + random.nextInt(9)));
+                        hasDigit = true;
+                        break;
+                    case 1:
+                        line.append(DIGIT_NAMES[random.nextInt(DIGIT_NAMES.length)]);
+                        break;
+                    default:
+                        int letters = 1 + random.nextInt(5);
+                        for (int letter = 0; letter < letters; letter++) {
+                            line.append((char) ('a' + random.nextInt(26)));
+                        }
+                }
+            }
+
+            if (!hasDigit) {
+                line.insert(random.nextInt(line.length() + 1), (char) ('1' + random.nextInt(9)));
+            }
+
+            out.append(line).append('\n');
+        }
+    }
+}
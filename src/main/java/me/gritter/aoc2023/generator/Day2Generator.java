@@ -0,0 +1,34 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Size is the number of games. Every game reveals one to six sets of one to three colors.
+ */
+public class Day2Generator implements InputGenerator {
+
+    private static final List<String> COLORS = List.of("red", "green", "blue");
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        for (int game = 1; game <= size; game++) {
+            StringJoiner sets = new StringJoiner("; ");
+
+            int setCount = 1 + random.nextInt(6);
+            for (int set = 0; set < setCount; set++) {
+                StringJoiner cubes = new StringJoiner(", ");
+                for (int color : Generators.distinct(random, 1 + random.nextInt(COLORS.size()), 0, COLORS.size() - 1)) {
+                    cubes.add((1 + random.nextInt(20)) + " " + COLORS.get(color));
+                }
+
+                sets.add(cubes.toString());
+            }
+
+            out.write("Game " + game + ": " + sets + "\n");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Size is the side of the square schematic. Numbers of one to three digits and symbols are scattered over the
+ * schematic, numbers are always followed by a non-digit.
+ */
+public class Day3Generator implements InputGenerator {
+
+    private static final String SYMBOLS = "*#+$/@=%&-";
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        char[] row = new char[size];
+        for (int y = 0; y < size; y++) {
+            Arrays.fill(row, '.');
+
+            int x = 0;
+            while (x < size) {
+                double roll = random.nextDouble();
+                if (roll < 0.08) {
+                    int digits = Math.min(1 + random.nextInt(3), size - x);
+                    row[x++] = (char) ('1' + random.nextInt(9));
+                    for (int digit = 1; digit < digits; digit++) {
+                        row[x++] = (char) ('0' + random.nextInt(10));
+                    }
+
+                    // Leave the dot after the number, so it doesn't run into the next one
+                    x++;
+                } else {
+                    if (roll < 0.1) {
+                        row[x] = Generators.pick(random, SYMBOLS);
+                    }
+
+                    x++;
+                }
+            }
+
+            out.write(row);
+            out.write('\n');
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Size is the number of scratch cards. Cards have ten winning numbers and twenty-five numbers, most cards have no or
+ * few matches so the number of copies in star 2 stays bounded, and no card wins copies past the last card.
+ */
+public class Day4Generator implements InputGenerator {
+
+    private static final int WINNING_NUMBERS = 10;
+    private static final int NUMBERS = 25;
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        for (int card = 1; card <= size; card++) {
+            int matches = Math.min(matches(random), size - card);
+
+            // The last matches winning numbers are shared with the card's own numbers
+            List<Integer> numbers = Generators.distinct(random, WINNING_NUMBERS + NUMBERS - matches, 1, 99);
+            String winning = format(numbers.subList(0, WINNING_NUMBERS));
+
+            List<Integer> own = new ArrayList<>(numbers.subList(WINNING_NUMBERS - matches, numbers.size()));
+            Collections.shuffle(own, random);
+
+            out.write(String.format("Card %4d: %s | %s\n", card, winning, format(own)));
+        }
+    }
+
+    private int matches(Random random) {
+        double roll = random.nextDouble();
+        if (roll < 0.6) return 0;
+        if (roll < 0.8) return 1;
+        if (roll < 0.9) return 2;
+        if (roll < 0.95) return 3;
+        return 4 + random.nextInt(WINNING_NUMBERS - 3);
+    }
+
+    private String format(List<Integer> numbers) {
+        StringJoiner joiner = new StringJoiner(" ");
+        numbers.forEach(number -> joiner.add(String.format("%2d", number)));
+        return joiner.toString();
+    }
+}
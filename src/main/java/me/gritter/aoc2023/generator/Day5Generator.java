@@ -0,0 +1,62 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Size is the number of ranges per map. The source ranges of a map don't overlap and are spread over the 32-bit
+ * range like the puzzle's. The ten seed ranges are kept short, as star 2 maps every seed individually.
+ */
+public class Day5Generator implements InputGenerator {
+
+    private static final String[] CATEGORIES = {"seed", "soil", "fertilizer", "water", "light", "temperature", "humidity", "location"};
+    private static final long MAX_VALUE = 1L << 32;
+    private static final int SEED_RANGES = 10;
+    private static final int MAX_SEED_RANGE = 1000;
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        Generators.requireAtLeast(size, 1);
+
+        StringJoiner seeds = new StringJoiner(" ");
+        for (int i = 0; i < SEED_RANGES; i++) {
+            seeds.add(Long.toString(nextLong(random, MAX_VALUE - MAX_SEED_RANGE)));
+            seeds.add(Integer.toString(1 + random.nextInt(MAX_SEED_RANGE)));
+        }
+
+        out.write("seeds: " + seeds + "\n");
+
+        for (int map = 0; map < CATEGORIES.length - 1; map++) {
+            out.write("\n" + CATEGORIES[map] + "-to-" + CATEGORIES[map + 1] + " map:\n");
+
+            for (String range : ranges(size, random)) {
+                out.write(range + "\n");
+            }
+        }
+    }
+
+    private List<String> ranges(int size, Random random) {
+        long[] starts = random.longs(size, 0, MAX_VALUE).sorted().toArray();
+
+        List<String> ranges = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            long end = i + 1 < size ? starts[i + 1] : MAX_VALUE;
+            long length = (long) ((end - starts[i]) * (0.5 + random.nextDouble() / 2));
+            if (length > 0) {
+                ranges.add(nextLong(random, MAX_VALUE - length) + " " + starts[i] + " " + length);
+            }
+        }
+
+        Collections.shuffle(ranges, random);
+        return ranges;
+    }
+
+    private long nextLong(Random random, long bound) {
+        return (long) (random.nextDouble() * bound);
+    }
+}
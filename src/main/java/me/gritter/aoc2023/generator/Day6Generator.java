@@ -0,0 +1,35 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Size is the duration of the races. Four races of between half the size and the size are generated, with a record
+ * distance that can always be beaten.
+ * <p>
+ * Star 2 concatenates all races into a single race, so it only fits a long (and finishes) for small sizes.
+ */
+public class Day6Generator implements InputGenerator {
+
+    private static final int RACES = 4;
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        Generators.requireAtLeast(size, 2);
+
+        StringJoiner times = new StringJoiner(" ");
+        StringJoiner distances = new StringJoiner(" ");
+        for (int race = 0; race < RACES; race++) {
+            long time = size / 2 + random.nextInt(size - size / 2 + 1);
+            long bestDistance = (time / 2) * (time - time / 2);
+
+            times.add(String.format("%5d", time));
+            distances.add(String.format("%5d", (long) (random.nextDouble() * bestDistance)));
+        }
+
+        out.write("Time:    " + times + "\n");
+        out.write("Distance: " + distances + "\n");
+    }
+}
@@ -0,0 +1,41 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Size is the number of hands. Hands are distinct, so the size is limited to the 13<sup>5</sup> possible hands.
+ */
+public class Day7Generator implements InputGenerator {
+
+    private static final String CARDS = "23456789TJQKA";
+    private static final int HAND_SIZE = 5;
+    private static final int POSSIBLE_HANDS = 371_293; // 13^5
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        if (size > POSSIBLE_HANDS) {
+            throw new IllegalArgumentException("size must be at most " + POSSIBLE_HANDS);
+        }
+
+        BitSet used = new BitSet(POSSIBLE_HANDS);
+        char[] hand = new char[HAND_SIZE];
+        for (int i = 0; i < size; i++) {
+            int code;
+            do {
+                code = random.nextInt(POSSIBLE_HANDS);
+            } while (used.get(code));
+            used.set(code);
+
+            for (int card = 0; card < HAND_SIZE; card++) {
+                hand[card] = CARDS.charAt(code % CARDS.length());
+                code /= CARDS.length();
+            }
+
+            out.write(hand);
+            out.write(" " + (1 + random.nextInt(1000)) + "\n");
+        }
+    }
+}
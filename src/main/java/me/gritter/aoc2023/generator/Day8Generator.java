@@ -0,0 +1,73 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Size is the approximate number of nodes. The network consists of one to six rings, each with a single starting
+ * ({@code ..A}) and ending ({@code ..Z}) node, the first ring running from {@code AAA} to {@code ZZZ}. The ending node
+ * leads back to the node after the starting node, so every ghost walks a cycle of a fixed length. The cycle lengths
+ * share the sequence length as a factor and are otherwise distinct primes, like the puzzle's.
+ */
+public class Day8Generator implements InputGenerator {
+
+    private static final int MAX_RINGS = 6;
+    private static final int[] PRIMES = {43, 47, 53, 59, 61, 67, 71, 73, 79};
+    private static final int AVERAGE_PRIME = 61;
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        int rings = Math.max(1, Math.min(MAX_RINGS, size / 1000));
+        int sequenceLength = Math.max(1, size / (rings * AVERAGE_PRIME));
+
+        StringBuilder sequence = new StringBuilder();
+        for (int i = 0; i < sequenceLength; i++) {
+            sequence.append(random.nextBoolean() ? 'L' : 'R');
+        }
+
+        out.write(sequence + "\n\n");
+
+        List<Integer> primes = new ArrayList<>();
+        for (int prime : PRIMES) {
+            primes.add(prime);
+        }
+        Collections.shuffle(primes, random);
+
+        List<String> lines = new ArrayList<>();
+        int middleNodes = 0;
+        for (int ring = 0; ring < rings; ring++) {
+            int steps = sequenceLength * primes.get(ring);
+
+            List<String> nodes = new ArrayList<>();
+            nodes.add(ring == 0 ? "AAA" : letters(ring, 2) + "A");
+            for (int i = 1; i < steps; i++) {
+                nodes.add(letters(middleNodes++, 3) + "M");
+            }
+            nodes.add(ring == 0 ? "ZZZ" : letters(ring, 2) + "Z");
+
+            for (int i = 0; i < nodes.size(); i++) {
+                String next = i + 1 < nodes.size() ? nodes.get(i + 1) : nodes.get(1);
+                lines.add(nodes.get(i) + " = (" + next + ", " + next + ")");
+            }
+        }
+
+        Collections.shuffle(lines, random);
+        for (String line : lines) {
+            out.write(line + "\n");
+        }
+    }
+
+    private String letters(int value, int minLength) {
+        StringBuilder letters = new StringBuilder();
+        do {
+            letters.append((char) ('A' + value % 26));
+            value /= 26;
+        } while (value > 0 || letters.length() < minLength);
+
+        return letters.reverse().toString();
+    }
+}
@@ -0,0 +1,39 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+import java.util.StringJoiner;
+
+/**
+ * Size is the number of sequences. Every sequence holds twenty-one values of a random polynomial of at most the
+ * fifth degree, so the differences always reach zero.
+ */
+public class Day9Generator implements InputGenerator {
+
+    private static final int VALUES = 21;
+    private static final int MAX_DEGREE = 5;
+
+    @Override
+    public void generate(int size, Random random, Writer out) throws IOException {
+        long[] coefficients = new long[MAX_DEGREE + 1];
+        for (int i = 0; i < size; i++) {
+            int degree = random.nextInt(MAX_DEGREE + 1);
+            for (int power = 0; power <= MAX_DEGREE; power++) {
+                coefficients[power] = power <= degree ? random.nextInt(2 * 10 + 1) - 10 : 0;
+            }
+
+            StringJoiner values = new StringJoiner(" ");
+            for (int x = 0; x < VALUES; x++) {
+                long value = 0;
+                for (int power = MAX_DEGREE; power >= 0; power--) {
+                    value = value * x + coefficients[power];
+                }
+
+                values.add(Long.toString(value));
+            }
+
+            out.write(values + "\n");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.IntBinaryOperator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Registry of the input generators, and a command line tool to write generated inputs:
+ * <pre>
+ *   java -cp target/classes me.gritter.aoc2023.generator.Generators &lt;day&gt; &lt;size&gt; [seed] [file]
+ * </pre>
+ * Generated files can be passed to the solutions using their absolute path.
+ */
+public class Generators {
+
+    public static final long DEFAULT_SEED = 2023;
+
+    private static final SortedMap<Integer, InputGenerator> GENERATORS;
+
+    static {
+        SortedMap<Integer, InputGenerator> generators = new TreeMap<>();
+        generators.put(1, new Day1Generator());
+        generators.put(2, new Day2Generator());
+        generators.put(3, new Day3Generator());
+        generators.put(4, new Day4Generator());
+        generators.put(5, new Day5Generator());
+        generators.put(6, new Day6Generator());
+        generators.put(7, new Day7Generator());
+        generators.put(8, new Day8Generator());
+        generators.put(9, new Day9Generator());
+        generators.put(10, new Day10Generator());
+        generators.put(11, new Day11Generator());
+        generators.put(12, new Day12Generator());
+        generators.put(13, new Day13Generator());
+        generators.put(14, new Day14Generator());
+        generators.put(15, new Day15Generator());
+        generators.put(16, new Day16Generator());
+        generators.put(17, new Day17Generator());
+        GENERATORS = Collections.unmodifiableSortedMap(generators);
+    }
+
+    private Generators() {
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 4) {
+            System.err.println("Usage: Generators <day> <size> [seed] [file]");
+            System.exit(1);
+        }
+
+        int day = Integer.parseInt(args[0]);
+        int size = Integer.parseInt(args[1]);
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_SEED;
+        Path path = Path.of(args.length > 3 ? args[3] : "day" + day + "-generated-" + size + ".txt");
+
+        generate(day, size, seed, path);
+        System.out.println(path.toAbsolutePath());
+    }
+
+    public static SortedMap<Integer, InputGenerator> all() {
+        return GENERATORS;
+    }
+
+    public static InputGenerator byDay(int day) {
+        InputGenerator generator = GENERATORS.get(day);
+        if (generator == null) {
+            throw new IllegalArgumentException("No generator for day " + day + ".");
+        }
+
+        return generator;
+    }
+
+    public static void generate(int day, int size, long seed, Path path) {
+        InputGenerator generator = byDay(day);
+
+        try (Writer out = Files.newBufferedWriter(path, UTF_8)) {
+            generator.generate(size, new Random(seed), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a grid of {@code width} by {@code height} cells, one line per row.
+     */
+    static void writeGrid(Writer out, int width, int height, IntBinaryOperator cell) throws IOException {
+        char[] row = new char[width];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                row[x] = (char) cell.applyAsInt(x, y);
+            }
+
+            out.write(row);
+            out.write('\n');
+        }
+    }
+
+    static void requireAtLeast(int size, int min) {
+        if (size < min) {
+            throw new IllegalArgumentException("size must be at least " + min);
+        }
+    }
+
+    static char pick(Random random, String symbols) {
+        return symbols.charAt(random.nextInt(symbols.length()));
+    }
+
+    /**
+     * Returns {@code count} distinct numbers from {@code [min, max]}, in random order.
+     */
+    static List<Integer> distinct(Random random, int count, int min, int max) {
+        List<Integer> numbers = new ArrayList<>();
+        for (int i = min; i <= max; i++) {
+            numbers.add(i);
+        }
+
+        Collections.shuffle(numbers, random);
+        return new ArrayList<>(numbers.subList(0, count));
+    }
+}
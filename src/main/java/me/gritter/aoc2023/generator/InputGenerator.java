@@ -0,0 +1,14 @@
+package me.gritter.aoc2023.generator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Generates a valid puzzle input of a configurable size. What the size means (lines, grid side, ...) is documented
+ * per generator. Generators only draw from {@code random}, so the same seed always produces the same input.
+ */
+public interface InputGenerator {
+
+    void generate(int size, Random random, Writer out) throws IOException;
+}
@@ -0,0 +1,87 @@
+package me.gritter.aoc2023.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Monotone bucket queue (Dial's algorithm): one bucket per priority, in a ring covering the priorities
+ * {@code last..last+span}, where {@code last} is the last polled priority. Adding and polling are O(1) amortized, as
+ * long as priorities are never lower than the last polled priority and never more than {@code span} above it. This
+ * holds for Dijkstra with edge weights of at most {@code span}.
+ */
+public class BucketQueue implements IntPriorityQueue {
+
+    private final int[][] buckets;
+    private final int[] bucketSizes;
+    private final int mask;
+
+    private int lastPriority; // Priority of the last polled value, no lower priorities can be added
+    private int size;
+
+    /**
+     * @param span  the maximum difference between the lowest and highest priority in the queue
+     */
+    public BucketQueue(int span) {
+        if (span < 0 || span > 1 << 20) {
+            throw new IllegalArgumentException("span must be between 0 and 2^20");
+        }
+
+        int bucketCount = Integer.highestOneBit(Math.max(1, span)) * 2;
+        this.buckets = new int[bucketCount][8];
+        this.bucketSizes = new int[bucketCount];
+        this.mask = bucketCount - 1;
+    }
+
+    @Override
+    public void add(int value, int priority) {
+        if (size == 0 && (priority < lastPriority || priority - lastPriority > mask)) {
+            // Nothing is queued, so the ring can start anywhere
+            lastPriority = priority;
+        } else if (priority < lastPriority || priority - lastPriority > mask) {
+            throw new IllegalArgumentException(
+                    "Priority " + priority + " is outside of " + lastPriority + ".." + (lastPriority + mask));
+        }
+
+        int bucket = priority & mask;
+        int[] values = buckets[bucket];
+        if (bucketSizes[bucket] == values.length) {
+            values = buckets[bucket] = Arrays.copyOf(values, values.length * 2);
+        }
+
+        values[bucketSizes[bucket]++] = value;
+        size++;
+    }
+
+    @Override
+    public int peekPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        int priority = lastPriority;
+        while (bucketSizes[priority & mask] == 0) {
+            priority++;
+        }
+
+        return priority;
+    }
+
+    @Override
+    public int poll() {
+        lastPriority = peekPriority();
+        int bucket = lastPriority & mask;
+        size--;
+        return buckets[bucket][--bucketSizes[bucket]];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(bucketSizes, 0);
+        size = 0;
+    }
+}
@@ -0,0 +1,203 @@
+package me.gritter.aoc2023.graph;
+
+import me.gritter.aoc2023.SolveContext;
+import me.gritter.aoc2023.collections.PagedIntArray;
+
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Breadth-first search, Dijkstra and A* over an {@link IntGraph}. Visited flags are kept in a {@link BitSet}, and costs
+ * in a {@link PagedIntArray} which only takes memory for the states near the ones reached. The searches poll the
+ * current {@link SolveContext}, so they can be cancelled and report the number of visited states as progress.
+ */
+public class GraphSearch {
+
+    private static final int CHECKPOINT_INTERVAL = 1 << 12;
+
+    private GraphSearch() {
+    }
+
+    /**
+     * Visits every state reachable from {@code starts}, layer by layer.
+     */
+    public static Traversal breadthFirst(IntGraph graph, int... starts) {
+        SolveContext context = SolveContext.current();
+
+        BitSet visited = new BitSet(graph.stateCount());
+        int[] queue = new int[graph.stateCount()];
+        int[] tail = {0}; // The edge consumer appends to the queue
+        IntGraph.EdgeConsumer enqueue = (target, weight) -> {
+            if (!visited.get(target)) {
+                visited.set(target);
+                queue[tail[0]++] = target;
+            }
+        };
+
+        for (int start : starts) {
+            enqueue.accept(start, 0);
+        }
+
+        int head = 0;
+        int depth = 0;
+        int layerEnd = tail[0];
+        while (head < tail[0]) {
+            if (head == layerEnd) {
+                depth++;
+                layerEnd = tail[0];
+            }
+
+            graph.forEachEdge(queue[head++], enqueue);
+
+            if (head % CHECKPOINT_INTERVAL == 0) {
+                context.progress(head, graph.stateCount());
+            }
+        }
+
+        return new Traversal(visited, depth);
+    }
+
+    /**
+     * Returns the cheapest path from {@code start} to any state matching {@code goal}, using a binary heap.
+     */
+    public static ShortestPath dijkstra(IntGraph graph, int start, IntPredicate goal) {
+        return aStar(graph, start, goal, state -> 0, new IntBinaryHeap());
+    }
+
+    /**
+     * Returns the cheapest path from {@code start} to any state matching {@code goal}.
+     *
+     * @param heuristic  lower bound of the cost from a state to the goal, which must be consistent: it may not drop
+     *                   by more than the weight of an edge. Use {@code state -> 0} for Dijkstra.
+     * @param queue      empty queue to use as the open set, e.g. a {@link BucketQueue} when edge weights are small
+     */
+    public static ShortestPath aStar(IntGraph graph, int start, IntPredicate goal, IntUnaryOperator heuristic,
+                                     IntPriorityQueue queue) {
+        SolveContext context = SolveContext.current();
+
+        // Settled states store the complement of their cost: it's negative, so they're never relaxed again
+        PagedIntArray costs = new PagedIntArray(graph.stateCount(), Integer.MAX_VALUE);
+
+        costs.set(start, 0);
+        queue.add(start, heuristic.applyAsInt(start));
+
+        int[] current = new int[1]; // Cost of the state being expanded, read by the edge consumer
+        IntGraph.EdgeConsumer relax = (target, weight) -> {
+            int cost = current[0] + weight;
+            if (cost < costs.get(target)) {
+                costs.set(target, cost);
+                queue.add(target, cost + heuristic.applyAsInt(target));
+            }
+        };
+
+        int settledCount = 0;
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int cost = costs.get(state);
+            if (cost < 0) {
+                // Stale entry, this state was already reached at a lower cost
+                continue;
+            }
+
+            costs.set(state, ~cost);
+            if (goal.test(state)) {
+                return new ShortestPath(state, cost, settledCount);
+            }
+
+            current[0] = cost;
+            graph.forEachEdge(state, relax);
+
+            if (++settledCount % CHECKPOINT_INTERVAL == 0) {
+                context.progress(settledCount, graph.stateCount());
+            }
+        }
+
+        return new ShortestPath(-1, Integer.MAX_VALUE, settledCount);
+    }
+
+    public static class Traversal {
+
+        private final BitSet visited;
+        private final int depth;
+
+        private Traversal(BitSet visited, int depth) {
+            this.visited = visited;
+            this.depth = depth;
+        }
+
+        public BitSet getVisited() {
+            return visited;
+        }
+
+        public boolean isVisited(int state) {
+            return visited.get(state);
+        }
+
+        public int getVisitedCount() {
+            return visited.cardinality();
+        }
+
+        /**
+         * Distance from the starts to the farthest visited state.
+         */
+        public int getDepth() {
+            return depth;
+        }
+
+        @Override
+        public String toString() {
+            return "Traversal{" +
+                    "visited=" + getVisitedCount() +
+                    ", depth=" + depth +
+                    '}';
+        }
+    }
+
+    public static class ShortestPath {
+
+        private final int goal;
+        private final int cost;
+        private final int settledCount;
+
+        private ShortestPath(int goal, int cost, int settledCount) {
+            this.goal = goal;
+            this.cost = cost;
+            this.settledCount = settledCount;
+        }
+
+        public boolean isFound() {
+            return goal != -1;
+        }
+
+        /**
+         * The goal state which was reached, or -1 if no goal is reachable.
+         */
+        public int getGoal() {
+            return goal;
+        }
+
+        /**
+         * Cost of the path, or {@link Integer#MAX_VALUE} if no goal is reachable.
+         */
+        public int getCost() {
+            return cost;
+        }
+
+        /**
+         * Number of states expanded before the goal was reached.
+         */
+        public int getSettledCount() {
+            return settledCount;
+        }
+
+        @Override
+        public String toString() {
+            return "ShortestPath{" +
+                    "goal=" + goal +
+                    ", cost=" + cost +
+                    ", settledCount=" + settledCount +
+                    '}';
+        }
+    }
+}
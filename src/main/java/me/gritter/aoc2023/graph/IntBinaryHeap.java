@@ -0,0 +1,93 @@
+package me.gritter.aoc2023.graph;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Binary min-heap storing each entry as a single {@code long} (priority in the high half, value in the low half), so
+ * comparisons are a single primitive compare and no entries are boxed.
+ */
+public class IntBinaryHeap implements IntPriorityQueue {
+
+    private long[] entries;
+    private int size;
+
+    public IntBinaryHeap() {
+        this(64);
+    }
+
+    public IntBinaryHeap(int initialCapacity) {
+        this.entries = new long[Math.max(1, initialCapacity)];
+    }
+
+    @Override
+    public void add(int value, int priority) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, size * 2);
+        }
+
+        long entry = (long) priority << 32 | (value & 0xFFFFFFFFL);
+
+        // Sift up
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (entries[parent] <= entry) {
+                break;
+            }
+
+            entries[i] = entries[parent];
+            i = parent;
+        }
+
+        entries[i] = entry;
+    }
+
+    @Override
+    public int peekPriority() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        return (int) (entries[0] >> 32);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+
+        long result = entries[0];
+        long entry = entries[--size];
+
+        // Sift down
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && entries[child + 1] < entries[child]) {
+                child++;
+            }
+            if (entry <= entries[child]) {
+                break;
+            }
+
+            entries[i] = entries[child];
+            i = child;
+        }
+
+        entries[i] = entry;
+        return (int) result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+    }
+}
@@ -0,0 +1,21 @@
+package me.gritter.aoc2023.graph;
+
+/**
+ * Implicit graph over the states {@code 0..stateCount()-1}. Solutions encode their search state (e.g. a grid index,
+ * direction and step count) into a dense {@code int}, so the searches can index their bookkeeping by state.
+ */
+public interface IntGraph {
+
+    int stateCount();
+
+    /**
+     * Reports every edge leaving {@code state}. Edge weights must not be negative.
+     */
+    void forEachEdge(int state, EdgeConsumer consumer);
+
+    @FunctionalInterface
+    interface EdgeConsumer {
+
+        void accept(int target, int weight);
+    }
+}
@@ -0,0 +1,32 @@
+package me.gritter.aoc2023.graph;
+
+/**
+ * Min-priority queue of {@code int} values with {@code int} priorities. Duplicate values are allowed, searches skip
+ * stale entries when they're polled instead of decreasing their priority.
+ */
+public interface IntPriorityQueue {
+
+    void add(int value, int priority);
+
+    /**
+     * Returns the lowest priority in the queue.
+     *
+     * @throws java.util.NoSuchElementException if the queue is empty
+     */
+    int peekPriority();
+
+    /**
+     * Removes and returns a value with the lowest priority.
+     *
+     * @throws java.util.NoSuchElementException if the queue is empty
+     */
+    int poll();
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    void clear();
+}
@@ -0,0 +1,74 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchRunnerTest {
+
+    private Path directory;
+
+    @BeforeEach
+    public void createInputs() throws IOException {
+        directory = Files.createTempDirectory("batch");
+        copyResource("day1-sample.txt", directory.resolve("day1-a.txt"));
+        copyResource("day2-sample.txt", directory.resolve("day2-b.txt"));
+        copyResource("day2-sample.txt", directory.resolve("unknown.txt"));
+    }
+
+    @AfterEach
+    public void deleteInputs() throws IOException {
+        for (Path file : BatchRunner.expand(directory.toString())) {
+            Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    public void shouldExpandDirectoriesAndGlobs() {
+        assertEquals(3, BatchRunner.expand(directory.toString()).size());
+        assertEquals(
+                List.of(directory.resolve("day1-a.txt"), directory.resolve("day2-b.txt")),
+                BatchRunner.expand(directory + "/day*.txt")
+        );
+    }
+
+    @Test
+    public void shouldEmitInInputOrder() throws InterruptedException {
+        List<String> lines = new ArrayList<>();
+        BatchRunner runner = new BatchRunner(4, null, Set.of(1, 2), BatchRunner.Order.INPUT, null);
+        runner.run(BatchRunner.expand(directory.toString()), lines::add);
+
+        assertEquals(6, lines.size());
+        assertTrue(lines.get(0).contains("\"day\":1,\"star\":1,\"answer\":142"));
+        assertTrue(lines.get(1).contains("\"day\":1,\"star\":2,\"answer\":142"));
+        assertTrue(lines.get(2).contains("\"day\":2,\"star\":1,\"answer\":8"));
+        assertTrue(lines.get(3).contains("\"day\":2,\"star\":2,\"answer\":2286"));
+        assertTrue(lines.get(4).contains("\"error\":\"Can't infer the day from the file name.\""));
+    }
+
+    @Test
+    public void shouldUseGivenDay() throws InterruptedException {
+        List<String> lines = Collections.synchronizedList(new ArrayList<>());
+        BatchRunner runner = new BatchRunner(2, 2, Set.of(2), BatchRunner.Order.COMPLETION, null);
+        runner.run(List.of(directory.resolve("unknown.txt")), lines::add);
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains("\"day\":2,\"star\":2,\"answer\":2286"));
+    }
+
+    private static void copyResource(String resource, Path target) throws IOException {
+        try (InputStream in = BatchRunnerTest.class.getResourceAsStream(resource)) {
+            Files.copy(Objects.requireNonNull(in, resource), target);
+        }
+    }
+}
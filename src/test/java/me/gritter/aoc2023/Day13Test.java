@@ -39,4 +39,12 @@ public class Day13Test {
                 SOLUTION.solution_star2(PUZZLE)
         );
     }
+
+    @Test
+    public void shouldCalculateBothStars() {
+        assertEquals(
+                new Answers(26957, 42695),
+                SOLUTION.solveBoth(PUZZLE)
+        );
+    }
 }
@@ -1,6 +1,5 @@
 package me.gritter.aoc2023;
 
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -34,7 +33,6 @@ public class Day17Test {
         );
     }
 
-    @Disabled("Disabled: test takes too long")
     @Test
     public void shouldCalculateStar1() {
         assertEquals(
@@ -43,7 +41,6 @@ public class Day17Test {
         );
     }
 
-    @Disabled("Disabled: test takes too long")
     @Test
     public void shouldCalculateStar2() {
         assertEquals(
@@ -1,8 +1,14 @@
 package me.gritter.aoc2023;
 
+import me.gritter.aoc2023.generator.Generators;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class Day1Test {
 
@@ -43,4 +49,53 @@ public class Day1Test {
                 SOLUTION.solution_star2(PUZZLE)
         );
     }
+
+    @Test
+    public void shouldCalculateBothStars() {
+        assertEquals(
+                new Answers(55621, 53592),
+                SOLUTION.solveBoth(PUZZLE)
+        );
+    }
+
+    @Test
+    public void shouldCalculateStarsForwards() {
+        Solution forward = new Day1(Day1.Strategy.FORWARD);
+        assertEquals(55621, forward.solution_star1(PUZZLE));
+        assertEquals(53592, forward.solution_star2(PUZZLE));
+    }
+
+    @Test
+    public void shouldSumChunksInParallel() throws IOException {
+        Path file = Files.createTempFile("day1-", ".txt");
+        try {
+            Generators.generate(1, 100_000, Generators.DEFAULT_SEED, file);
+
+            Solution sequential = new Day1(Day1.Strategy.FORWARD, Day1.SEQUENTIAL);
+            Solution parallel = new Day1(Day1.Strategy.BIDIRECTIONAL, 1024);
+            assertEquals(sequential.solveBoth(file.toString()), parallel.solveBoth(file.toString()));
+            assertEquals(sequential.solution_star2(file.toString()), parallel.solution_star2(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldMatchOverlappingWords() {
+        for (Day1.Strategy strategy : Day1.Strategy.values()) {
+            assertEquals(82, strategy.calibrationValue("eightwo", DigitMatcher.DIGITS_AND_WORDS));
+            assertEquals(18, strategy.calibrationValue("xoneightx", DigitMatcher.DIGITS_AND_WORDS));
+            assertEquals(79, strategy.calibrationValue("sevenine", DigitMatcher.DIGITS_AND_WORDS));
+            assertEquals(33, strategy.calibrationValue("a3seveb", DigitMatcher.DIGITS_AND_WORDS));
+            assertEquals(33, strategy.calibrationValue("eightwo3", DigitMatcher.DIGITS));
+            assertEquals(11, strategy.calibrationValue("1", DigitMatcher.DIGITS));
+        }
+    }
+
+    @Test
+    public void shouldRejectLinesWithoutDigits() {
+        for (Day1.Strategy strategy : Day1.Strategy.values()) {
+            assertThrows(IllegalStateException.class, () -> strategy.calibrationValue("abc", DigitMatcher.DIGITS));
+        }
+    }
 }
@@ -2,7 +2,15 @@ package me.gritter.aoc2023;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
 
 public class Day2Test {
 
@@ -39,4 +47,81 @@ public class Day2Test {
                 SOLUTION.solution_star2(PUZZLE)
         );
     }
+
+    @Test
+    public void shouldCalculateBothStars() {
+        assertEquals(
+                new Answers(2551, 62811),
+                SOLUTION.solveBoth(PUZZLE)
+        );
+    }
+
+    @Test
+    public void shouldStreamCompressedInput() throws IOException {
+        Path file = Files.createTempFile("day2-", ".txt.gz");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+                out.write(Utils.readFile(PUZZLE).getBytes(UTF_8));
+            }
+
+            assertFalse(Utils.isMapped(file.toString()));
+            assertEquals(SOLUTION.solveBoth(PUZZLE), SOLUTION.solveBoth(file.toString()));
+            assertEquals(2551, SOLUTION.solution_star1(file.toString()));
+            assertEquals(62811, SOLUTION.solution_star2(file.toString()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldStoreMaximumPerColor() {
+        Day2.Games games = new Day2.Games.Builder()
+                .add("Game 3: 8 green, 6 blue, 20 red; 5 blue, 4 red, 13 green; 5 green, 1 red")
+                .add("Game 7: 2 green; 1 green, 3 red")
+                .build();
+
+        assertEquals(2, games.size());
+        assertEquals(3, games.getId(0));
+        assertEquals(20, games.getMaximum(0, Day2.Color.RED));
+        assertEquals(13, games.getMaximum(0, Day2.Color.GREEN));
+        assertEquals(6, games.getMaximum(0, Day2.Color.BLUE));
+        assertEquals(0, games.getMaximum(1, Day2.Color.BLUE));
+
+        assertEquals(1560, games.getPower(0));
+        assertEquals(6, games.getPower(1));
+        assertFalse(games.isPossible(0, Day2.Color.amounts(12, 13, 14)));
+        assertTrue(games.isPossible(1, Day2.Color.amounts(3, 2, 0)));
+    }
+
+    @Test
+    public void shouldAnswerQueriesFromIndex() {
+        Day2.GameIndex index = new Day2().index(PUZZLE);
+        assertTrue(index.hasTable());
+        assertEquals(2551, index.sumOfPossibleIds(12, 13, 14));
+    }
+
+    @Test
+    public void shouldMatchScanWithAndWithoutTable() {
+        Day2.Games games = Day2.parseGames(PUZZLE);
+        Day2.GameIndex table = Day2.GameIndex.of(games);
+        Day2.GameIndex scan = Day2.GameIndex.of(games, 0);
+        assertFalse(scan.hasTable());
+
+        Random random = new Random(2023);
+        for (int query = 0; query < 1000; query++) {
+            int red = random.nextInt(25) - 2;
+            int green = random.nextInt(25) - 2;
+            int blue = random.nextInt(25) - 2;
+
+            long expected = 0;
+            for (int game = 0; game < games.size(); game++) {
+                if (games.isPossible(game, Day2.Color.amounts(red, green, blue))) {
+                    expected += games.getId(game);
+                }
+            }
+
+            assertEquals(expected, table.sumOfPossibleIds(red, green, blue));
+            assertEquals(expected, scan.sumOfPossibleIds(red, green, blue));
+        }
+    }
 }
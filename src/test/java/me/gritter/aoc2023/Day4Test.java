@@ -39,4 +39,12 @@ public class Day4Test {
                 SOLUTION.solution_star2(PUZZLE)
         );
     }
+
+    @Test
+    public void shouldCalculateBothStars() {
+        assertEquals(
+                new Answers(21959, 5132675),
+                SOLUTION.solveBoth(PUZZLE)
+        );
+    }
 }
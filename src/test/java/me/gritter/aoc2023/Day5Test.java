@@ -3,6 +3,10 @@ package me.gritter.aoc2023;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class Day5Test {
@@ -25,6 +29,21 @@ public class Day5Test {
         );
     }
 
+    @Test
+    public void shouldReadStdinOnce() {
+        InputStream originalIn = System.in;
+        byte[] sample = Utils.readFile(SAMPLE).getBytes(UTF_8);
+        try {
+            System.setIn(new ByteArrayInputStream(sample));
+            assertEquals(35, SOLUTION.solution_star1(InputSource.STDIN));
+
+            System.setIn(new ByteArrayInputStream(sample));
+            assertEquals(46, SOLUTION.solution_star2(InputSource.STDIN));
+        } finally {
+            System.setIn(originalIn);
+        }
+    }
+
     @Test
     public void shouldCalculateStar1() {
         assertEquals(
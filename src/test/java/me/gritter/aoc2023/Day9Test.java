@@ -93,4 +93,12 @@ public class Day9Test {
                 sequence.toString()
         );
     }
+
+    @Test
+    public void shouldCalculateBothStars() {
+        assertEquals(
+                new Answers(1834108701, 993),
+                SOLUTION.solveBoth(PUZZLE)
+        );
+    }
 }
@@ -0,0 +1,62 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class DigitMatcherTest {
+
+    private static List<Integer> digits(DigitMatcher matcher, String input) {
+        List<Integer> digits = new ArrayList<>();
+        int state = DigitMatcher.INITIAL_STATE;
+        for (int i = 0; i < input.length(); i++) {
+            state = matcher.next(state, input.charAt(i));
+            if (matcher.digit(state) != DigitMatcher.NO_DIGIT) {
+                digits.add(matcher.digit(state));
+            }
+        }
+
+        return digits;
+    }
+
+    @Test
+    public void shouldMatchDigits() {
+        assertEquals(List.of(1, 0, 9), digits(DigitMatcher.DIGITS, "a1bone0nine9"));
+    }
+
+    @Test
+    public void shouldMatchWords() {
+        assertEquals(
+                List.of(1, 2, 3, 4, 5, 6, 7, 8, 9),
+                digits(DigitMatcher.DIGITS_AND_WORDS, "onetwothreefourfivesixseveneightnine")
+        );
+    }
+
+    @Test
+    public void shouldMatchOverlappingWords() {
+        assertEquals(List.of(8, 2, 1, 8, 3), digits(DigitMatcher.DIGITS_AND_WORDS, "eightwoneight3"));
+        assertEquals(List.of(9, 9), digits(DigitMatcher.DIGITS_AND_WORDS, "nninenine"));
+        assertEquals(List.of(3), digits(DigitMatcher.DIGITS_AND_WORDS, "ththree"));
+    }
+
+    @Test
+    public void shouldInterruptWordsWithDigits() {
+        assertEquals(List.of(5), digits(DigitMatcher.DIGITS_AND_WORDS, "fo5ur"));
+    }
+
+    @Test
+    public void shouldResetOnNonAscii() {
+        assertEquals(List.of(1), digits(DigitMatcher.DIGITS_AND_WORDS, "onéone"));
+    }
+
+    @Test
+    public void shouldMatchReversedWordsWhenReversed() {
+        DigitMatcher reversed = DigitMatcher.DIGITS_AND_WORDS.reversed();
+        assertEquals(List.of(2, 8, 4), digits(reversed, new StringBuilder("4eightwo").reverse().toString()));
+        assertSame(DigitMatcher.DIGITS_AND_WORDS, reversed.reversed());
+    }
+}
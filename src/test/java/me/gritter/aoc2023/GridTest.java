@@ -0,0 +1,127 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GridTest {
+
+    @Test
+    public void shouldCopySnapshotOnWrite() {
+        Grid grid = new Grid(3, 2);
+        grid.set(1, 1, '#');
+
+        Grid snapshot = grid.snapshot();
+        assertEquals(grid, snapshot);
+
+        grid.set(0, 0, '#');
+        assertEquals('#', grid.getChar(0, 0));
+        assertEquals(0, snapshot.get(0, 0));
+        assertEquals('#', snapshot.getChar(1, 1));
+
+        snapshot.set(2, 1, 'O');
+        assertEquals(0, grid.get(2, 1));
+    }
+
+    @Test
+    public void shouldIterateNeighborsWithinBounds() {
+        Grid grid = new Grid(3, 3);
+
+        List<Integer> corner = new ArrayList<>();
+        grid.forEachNeighbor(grid.index(0, 0), corner::add);
+        assertEquals(List.of(grid.index(1, 0), grid.index(0, 1)), corner);
+
+        List<Integer> center = new ArrayList<>();
+        grid.forEachAdjacent(grid.index(1, 1), center::add);
+        assertEquals(8, center.size());
+        assertFalse(center.contains(grid.index(1, 1)));
+    }
+
+    @Test
+    public void shouldCompareRowsAndColumns() {
+        Grid grid = new Grid(2, 2);
+        grid.set(0, 0, '#');
+        grid.set(0, 1, '#');
+
+        assertTrue(grid.row(0).contentEquals(grid.row(1)));
+        assertFalse(grid.column(0).contentEquals(grid.column(1)));
+    }
+
+    @Test
+    public void shouldStoreCellsOffHeap() {
+        try (Grid grid = Grid.offHeap(3, 2)) {
+            assertTrue(grid.isOffHeap());
+
+            grid.set(2, 1, '#');
+            assertEquals('#', grid.getChar(2, 1));
+            assertEquals(0, grid.get(0, 0));
+
+            // Equal to an on-heap grid with the same cells
+            Grid onHeap = new Grid(3, 2);
+            onHeap.set(2, 1, '#');
+            assertFalse(onHeap.isOffHeap());
+            assertEquals(onHeap, grid);
+            assertEquals(onHeap.hashCode(), grid.hashCode());
+            assertEquals(onHeap.contentHash(), grid.contentHash());
+            assertEquals(onHeap.toString(), grid.toString());
+        }
+    }
+
+    @Test
+    public void shouldCopyOffHeapSnapshotOnWrite() {
+        Grid grid = Grid.offHeap(2, 2);
+        grid.set(0, 0, '#');
+
+        Grid snapshot = grid.snapshot();
+        snapshot.set(1, 1, 'O');
+        assertEquals(0, grid.get(1, 1));
+
+        // Closing the grid must not free the cells of a snapshot which still shares them
+        Grid unmodified = grid.snapshot();
+        grid.close();
+        assertEquals('#', unmodified.getChar(0, 0));
+        assertEquals('O', snapshot.getChar(1, 1));
+
+        unmodified.close();
+        snapshot.close();
+    }
+
+    @Test
+    public void shouldAllocateOffHeapFromThreshold() {
+        assertFalse(Grid.allocate(2, 2).isOffHeap());
+        assertThrows(IllegalArgumentException.class, () -> Grid.allocate(1 << 16, 1 << 16));
+    }
+
+    @Test
+    public void shouldCopyInputRowsIntoBuffer() {
+        InputGrid input = InputGrid.of(ByteBuffer.wrap("ab\ncd\n".getBytes(StandardCharsets.US_ASCII)));
+
+        ByteBuffer cells = ByteBuffer.allocateDirect(4);
+        input.copyRow(1, cells, 0);
+        input.copyRow(0, cells, 2);
+
+        assertEquals('c', cells.get(0));
+        assertEquals('b', cells.get(3));
+        assertEquals(0, cells.position());
+    }
+
+    @Test
+    public void shouldRejectRaggedInputRows() {
+        ByteBuffer buffer = ByteBuffer.wrap("ab\ncd\n".getBytes(StandardCharsets.US_ASCII));
+        assertEquals(2, InputGrid.of(buffer, 0, 6).getHeight());
+        assertEquals(2, InputGrid.of(buffer, 0, 5).getHeight());
+
+        assertThrows(IllegalArgumentException.class, () -> InputGrid.of(ascii("ab\ncd\ne")));
+        assertThrows(IllegalArgumentException.class, () -> InputGrid.of(ascii("ab\ncd\nef\ng\n")));
+        assertThrows(IllegalArgumentException.class, () -> InputGrid.of(ascii("ab\ncde")));
+    }
+
+    private static ByteBuffer ascii(String text) {
+        return ByteBuffer.wrap(text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,136 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputSourceTest {
+
+    private static final String CONTENTS = "1abc2\npqr3stu8vwx\n";
+
+    private final InputStream originalIn = System.in;
+
+    @AfterEach
+    public void restoreStdin() {
+        System.setIn(originalIn);
+    }
+
+    @Test
+    public void shouldReadAbsolutePaths() throws IOException {
+        Path file = Files.createTempFile("day1-", ".txt");
+        try {
+            Files.writeString(file, CONTENTS);
+
+            assertEquals(CONTENTS, Utils.readFile(file.toString()));
+            assertEquals(CONTENTS.length(), Utils.mapFile(file.toString()).remaining());
+            assertTrue(InputSource.of(file.toString()).isMapped());
+            assertEquals(CONTENTS.length(), InputSource.of(file.toString()).size());
+            assertEquals("pqr3s", UTF_8.decode(InputSource.of(file.toString()).map(6, 5)).toString());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldDecompressGzip() throws IOException {
+        Path file = Files.createTempFile("day1-", ".txt.gz");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+                out.write(CONTENTS.getBytes(UTF_8));
+            }
+
+            try (Stream<String> lines = Utils.streamLines(file.toString())) {
+                assertEquals(List.of("1abc2", "pqr3stu8vwx"), lines.collect(Collectors.toList()));
+            }
+            assertEquals(CONTENTS.length(), Utils.mapFile(file.toString()).remaining());
+            assertEquals(12 + 38, new Day1().solution_star1(file.toString()));
+            assertFalse(InputSource.of(file.toString()).isMapped());
+            assertThrows(IllegalStateException.class, () -> InputSource.of(file.toString()).size());
+            assertThrows(IllegalStateException.class, () -> InputSource.of(file.toString()).map(0, 1));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldIdentifyFilesBySizeAndModificationTime() throws IOException {
+        Path file = Files.createTempFile("day1-", ".txt");
+        try {
+            Files.writeString(file, CONTENTS);
+            String identity = InputSource.of(file.toString()).identity();
+            assertEquals(identity, InputSource.of(file.toString()).identity());
+
+            Files.writeString(file, CONTENTS + CONTENTS);
+            assertNotEquals(identity, InputSource.of(file.toString()).identity());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldIgnoreTrailingBlankLines() throws IOException {
+        Path file = Files.createTempFile("sample-", ".txt");
+        try {
+            // The days which stream their lines
+            for (int day : new int[]{1, 2, 4, 9, 12}) {
+                String sample = Solutions.inputFile(day, "sample");
+                Files.writeString(file, Utils.readFile(sample) + "\n\n");
+
+                Solution solution = Solutions.byDay(day);
+                assertEquals(solution.solution_star1(sample), solution.solution_star1(file.toString()), "Day " + day);
+                assertEquals(solution.solution_star2(sample), solution.solution_star2(file.toString()), "Day " + day);
+            }
+
+            try (Stream<String> lines = Utils.streamLines(file.toString())) {
+                assertTrue(lines.noneMatch(String::isEmpty));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldStreamStdinOnce() {
+        System.setIn(new ByteArrayInputStream(CONTENTS.getBytes(UTF_8)));
+
+        try (Stream<String> lines = Utils.streamLines(InputSource.STDIN)) {
+            assertEquals(2, lines.count());
+        }
+        assertThrows(IllegalStateException.class, () -> Utils.readFile(InputSource.STDIN));
+    }
+
+    @Test
+    public void shouldStreamStdinIntoSolutions() {
+        System.setIn(new ByteArrayInputStream(CONTENTS.getBytes(UTF_8)));
+
+        assertEquals(12 + 38, new Day1().solution_star1(InputSource.STDIN));
+        assertThrows(IllegalStateException.class, () -> Utils.readFile(InputSource.STDIN));
+    }
+
+    @Test
+    public void shouldRereadBufferedStdin() {
+        System.setIn(new ByteArrayInputStream(CONTENTS.getBytes(UTF_8)));
+
+        assertEquals(CONTENTS.length(), Utils.mapFile(InputSource.STDIN).remaining());
+        assertEquals(CONTENTS, Utils.readFile(InputSource.STDIN));
+        assertEquals(CONTENTS, Utils.readFile(InputSource.STDIN));
+    }
+
+    @Test
+    public void shouldRejectMissingInputs() {
+        assertThrows(IllegalArgumentException.class, () -> InputSource.of("day99-puzzle.txt"));
+    }
+}
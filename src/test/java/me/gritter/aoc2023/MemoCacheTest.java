@@ -0,0 +1,96 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MemoCacheTest {
+
+    @Test
+    public void shouldReturnPutValues() {
+        MemoCache cache = new MemoCache("test");
+        cache.put(MemoCache.pack(1, 2, 3), 42);
+
+        assertEquals(42, cache.get(MemoCache.pack(1, 2, 3), -1));
+        assertEquals(-1, cache.get(MemoCache.pack(3, 2, 1), -1));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void shouldGrowUnboundedCache() {
+        MemoCache cache = new MemoCache("test");
+        for (int i = 0; i < 100_000; i++) {
+            cache.put(i, i * 2L);
+        }
+
+        assertEquals(100_000, cache.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertEquals(i * 2L, cache.get(i, -1));
+        }
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        MemoCache cache = new MemoCache("test", 64);
+        assertEquals(64, cache.capacity());
+
+        for (int i = 0; i < 1000; i++) {
+            cache.put(i, i);
+            // Keep the first key in use, so it's never the least recently used of its set
+            assertEquals(0, cache.get(0, -1));
+        }
+
+        assertEquals(64, cache.size());
+        assertEquals(1000 - 64, cache.getEvictions());
+        assertEquals(999, cache.get(999, -1));
+    }
+
+    @Test
+    public void shouldReplaceExistingKey() {
+        MemoCache cache = new MemoCache("test", 4);
+        cache.put(7, 1);
+        cache.put(7, 2);
+
+        assertEquals(2, cache.get(7, -1));
+        assertEquals(1, cache.size());
+        assertEquals(0, cache.getEvictions());
+    }
+
+    @Test
+    public void shouldRemoveEntriesOnClear() {
+        MemoCache cache = new MemoCache("test");
+        cache.put(1, 1);
+        cache.clear();
+
+        assertEquals(-1, cache.get(1, -1));
+        assertEquals(0, cache.size());
+
+        cache.put(1, 2);
+        assertEquals(2, cache.get(1, -1));
+    }
+
+    @Test
+    public void shouldRejectPackingValuesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> MemoCache.pack(1 << 21, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> MemoCache.pack(0, -1, 0));
+        assertNotEquals(MemoCache.pack(1, 0, 0), MemoCache.pack(0, 1, 0));
+    }
+
+    @Test
+    public void shouldPublishAndResetStatistics() {
+        MemoCache cache = new MemoCache("test", 4);
+        cache.get(1, -1);
+        cache.put(1, 1);
+        cache.get(1, -1);
+
+        Metrics metrics = new Metrics();
+        cache.publish(metrics);
+
+        assertEquals(1, metrics.getCounter("test.hits"));
+        assertEquals(1, metrics.getCounter("test.misses"));
+        assertEquals(0, metrics.getCounter("test.evictions"));
+        assertEquals(0, cache.getHits());
+    }
+}
@@ -0,0 +1,45 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MetricsTest {
+
+    @Test
+    public void shouldRecordPhasesAndCounters() {
+        Metrics metrics = new Metrics();
+
+        long result = Metrics.withMetrics(metrics, () -> Metrics.current().phase("solve", () -> {
+            Metrics.current().increment("steps");
+            Metrics.current().add("steps", 2);
+            return 42L;
+        }));
+
+        assertEquals(42, result);
+        assertEquals(3, metrics.getCounter("steps"));
+        assertEquals(1, metrics.getPhases().get("solve").getCount());
+        assertTrue(metrics.getPhases().get("solve").getWallNanos() > 0);
+        assertNotSame(metrics, Metrics.current());
+    }
+
+    @Test
+    public void shouldRecordParseAndSolvePhasesOfEveryDay() {
+        Solutions.all().forEach((day, solution) -> {
+            Metrics metrics = new Metrics();
+            Metrics.withMetrics(metrics, () -> solution.solution_star1(Solutions.inputFile(day, "sample")));
+
+            assertTrue(metrics.getPhases().containsKey("parse"), "Day " + day + " records a parse phase");
+            assertTrue(metrics.getPhases().containsKey("solve"), "Day " + day + " records a solve phase");
+        });
+    }
+
+    @Test
+    public void shouldFormatJsonAndCsv() {
+        Metrics metrics = new Metrics();
+        metrics.increment("steps");
+
+        assertEquals("{\"phases\":{},\"counters\":{\"steps\":1}}", metrics.toJson());
+        assertEquals("counter,steps,,,,,1", metrics.toCsv().get(0));
+    }
+}
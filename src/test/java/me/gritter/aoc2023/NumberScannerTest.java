@@ -0,0 +1,62 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NumberScannerTest {
+
+    @Test
+    public void shouldSkipSeparators() {
+        NumberScanner scanner = new NumberScanner("Card   1: 41 48 | 83  6");
+
+        assertEquals(1, scanner.nextInt());
+        assertEquals(41, scanner.nextInt());
+        assertEquals(48, scanner.nextInt());
+        assertEquals(83, scanner.nextInt());
+        assertEquals(6, scanner.nextInt());
+        assertFalse(scanner.hasNext());
+        assertThrows(NoSuchElementException.class, scanner::nextInt);
+    }
+
+    @Test
+    public void shouldReadSignsAndLongs() {
+        NumberScanner scanner = new NumberScanner("seed-to-soil -3 4294967296 -12");
+
+        assertEquals(-3, scanner.nextInt());
+        assertEquals(4294967296L, scanner.nextLong());
+        assertEquals(-12, scanner.nextLong());
+        assertTrue(scanner.isAtEnd());
+    }
+
+    @Test
+    public void shouldRejectIntOverflow() {
+        assertThrows(NumberFormatException.class, () -> new NumberScanner("4294967296").nextInt());
+    }
+
+    @Test
+    public void shouldMatchStructure() {
+        NumberScanner scanner = new NumberScanner("Game 3: 8 green, 6 blue; 5 red");
+
+        assertEquals(3, scanner.nextInt());
+        scanner.skipPast(':');
+        assertEquals(8, scanner.nextInt());
+        assertTrue(scanner.skipWhitespace().consume("green"));
+        assertFalse(scanner.consume(";"));
+        assertTrue(scanner.consume(","));
+        assertEquals(6, scanner.nextInt());
+        assertTrue(scanner.skipWhitespace().consume("blue"));
+        assertTrue(scanner.consume(";"));
+        assertEquals(5, scanner.nextInt());
+    }
+
+    @Test
+    public void shouldStayWithinRange() {
+        NumberScanner scanner = new NumberScanner("12 34 56", 3, 5);
+
+        assertEquals(34, scanner.nextInt());
+        assertFalse(scanner.hasNext());
+    }
+}
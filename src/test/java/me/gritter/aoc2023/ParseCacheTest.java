@@ -0,0 +1,132 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParseCacheTest {
+
+    private static final String FILE_1 = "day1-sample.txt";
+    private static final String FILE_2 = "day2-sample.txt";
+
+    @Test
+    public void shouldParseOnlyOnce() {
+        ParseCache cache = new ParseCache(2);
+        AtomicInteger parses = new AtomicInteger();
+
+        String first = cache.get("model", FILE_1, file -> file + parses.incrementAndGet());
+        String second = cache.get("model", FILE_1, file -> file + parses.incrementAndGet());
+
+        assertSame(first, second);
+        assertEquals(1, parses.get());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsed() {
+        ParseCache cache = new ParseCache(2);
+        AtomicInteger parses = new AtomicInteger();
+
+        cache.get("a", FILE_1, file -> parses.incrementAndGet());
+        cache.get("b", FILE_1, file -> parses.incrementAndGet());
+        cache.get("a", FILE_1, file -> parses.incrementAndGet()); // "a" is now the most recently used
+        cache.get("c", FILE_2, file -> parses.incrementAndGet()); // evicts "b"
+
+        assertEquals(2, cache.size());
+        assertEquals(3, parses.get());
+
+        cache.get("a", FILE_1, file -> parses.incrementAndGet());
+        assertEquals(3, parses.get());
+
+        cache.get("b", FILE_1, file -> parses.incrementAndGet());
+        assertEquals(4, parses.get());
+    }
+
+    @Test
+    public void shouldParseChangedFileAgain() throws IOException {
+        Path file = Files.createTempFile("day1-", ".txt");
+        try {
+            ParseCache cache = new ParseCache(2);
+            AtomicInteger parses = new AtomicInteger();
+
+            Files.writeString(file, "1abc2\n");
+            cache.get("model", file.toString(), f -> parses.incrementAndGet());
+            cache.get("model", file.toString(), f -> parses.incrementAndGet());
+            assertEquals(1, parses.get());
+
+            Files.writeString(file, "pqr3stu8vwx\n");
+            cache.get("model", file.toString(), f -> parses.incrementAndGet());
+            assertEquals(2, parses.get());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void shouldShareModelOfIdenticalFiles() throws IOException {
+        Path first = Files.createTempFile("first-", ".txt");
+        Path second = Files.createTempFile("second-", ".txt");
+        try {
+            Files.writeString(first, "1abc2\n");
+            Files.writeString(second, "1abc2\n");
+
+            ParseCache cache = new ParseCache(2);
+            AtomicInteger parses = new AtomicInteger();
+            Object model = cache.get("model", first.toString(), f -> parses.incrementAndGet());
+
+            assertSame(model, cache.get("model", second.toString(), f -> parses.incrementAndGet()));
+            assertEquals(1, parses.get());
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    public void shouldHandOutSnapshotsOfMutableModels() {
+        ParseCache cache = new ParseCache(2);
+
+        Grid first = cache.get("grid", "day3-sample.txt", file -> Grid.of(Utils.mapGrid(file)));
+        first.set(0, 0, '#');
+        Grid second = cache.get("grid", "day3-sample.txt", file -> Grid.of(Utils.mapGrid(file)));
+
+        assertNotSame(first, second);
+        assertEquals('#', first.getChar(0, 0));
+        assertEquals('4', second.getChar(0, 0));
+    }
+
+    @Test
+    public void shouldReleaseEvictedAndClearedModels() {
+        ParseCache cache = new ParseCache(1);
+
+        Resource first = new Resource();
+        cache.get("a", FILE_1, file -> first).close(); // The caller closes its snapshot
+        assertEquals(0, first.closes.get());
+
+        Resource second = new Resource();
+        cache.get("b", FILE_1, file -> second).close(); // Evicts "a"
+        assertEquals(1, first.closes.get());
+
+        cache.clear();
+        assertEquals(1, second.closes.get());
+    }
+
+    private static class Resource implements ParseCache.Snapshottable<Resource>, AutoCloseable {
+
+        private final AtomicInteger closes = new AtomicInteger();
+
+        @Override
+        public Resource snapshot() {
+            return new Resource();
+        }
+
+        @Override
+        public void close() {
+            closes.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+/**
+ * Times every star listed in {@code performance-baseline.properties} against its puzzle input, and fails when the
+ * median of a star exceeds its baseline (in milliseconds) by more than the tolerance. The parse cache is cleared before
+ * every run, so the timings include parsing.
+ * <p>
+ * Only runs with the {@code performance} profile: {@code mvn -P performance test}. Tuned using system properties:
+ * <ul>
+ *   <li>{@code performance.tolerance}: allowed slowdown as a fraction of the baseline, defaults to 1.0 (twice as
+ *   slow)</li>
+ *   <li>{@code performance.slack}: allowed slowdown in milliseconds on top of that, absorbs noise on fast stars</li>
+ *   <li>{@code performance.warmup} and {@code performance.iterations}: untimed and timed runs per star</li>
+ *   <li>{@code performance.record}: file to write the measured medians to, in the baseline format</li>
+ * </ul>
+ */
+@Tag("performance")
+public class PerformanceTest {
+
+    private static final String BASELINE = "performance-baseline.properties";
+    private static final Pattern KEY = Pattern.compile("day(\\d+)\\.star([12])");
+
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("performance.tolerance", "1.0"));
+    private static final double SLACK_MILLIS = Double.parseDouble(System.getProperty("performance.slack", "5"));
+    private static final int WARMUP = Integer.getInteger("performance.warmup", 2);
+    private static final int ITERATIONS = Integer.getInteger("performance.iterations", 5);
+    private static final String RECORD = System.getProperty("performance.record");
+
+    private static final List<Result> RESULTS = Collections.synchronizedList(new ArrayList<>());
+
+    @TestFactory
+    public Stream<DynamicTest> shouldStayWithinBaseline() {
+        Properties baseline = loadBaseline();
+
+        return baseline.stringPropertyNames().stream()
+                .map(KEY::matcher)
+                .filter(Matcher::matches)
+                .sorted(Comparator.<Matcher>comparingInt(m -> Integer.parseInt(m.group(1)))
+                        .thenComparingInt(m -> Integer.parseInt(m.group(2))))
+                .map(m -> {
+                    int day = Integer.parseInt(m.group(1));
+                    int star = Integer.parseInt(m.group(2));
+                    double baselineMillis = Double.parseDouble(baseline.getProperty(m.group()));
+
+                    return dynamicTest("day " + day + " star " + star, () -> measure(day, star, baselineMillis));
+                });
+    }
+
+    @AfterAll
+    public static void report() throws IOException {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%4s %5s %12s %12s %12s  %s%n",
+                "Day", "Star", "Median (ms)", "Base (ms)", "Budget (ms)", "Status"));
+
+        synchronized (RESULTS) {
+            for (Result result : RESULTS) {
+                report.append(String.format(Locale.ROOT, "%4d %5d %12.1f %12.1f %12.1f  %s%n",
+                        result.day, result.star, result.medianMillis, result.baselineMillis, result.budgetMillis(),
+                        result.getStatus()));
+            }
+        }
+
+        System.out.println(report);
+
+        if (RECORD != null) {
+            try (Writer out = Files.newBufferedWriter(Path.of(RECORD), UTF_8)) {
+                for (Result result : RESULTS) {
+                    out.write(String.format(Locale.ROOT, "day%d.star%d=%.1f%n",
+                            result.day, result.star, result.medianMillis));
+                }
+            }
+        }
+    }
+
+    private void measure(int day, int star, double baselineMillis) {
+        Solution solution = Solutions.byDay(day);
+        String file = Solutions.puzzleFile(day);
+        Result result = new Result(day, star, baselineMillis);
+
+        // Give up on runaway stars instead of hanging the build.
+        Duration timeout = Duration.ofMillis((long) Math.max(10_000, 10 * result.budgetMillis()));
+
+        try {
+            // Every run parses its input, rather than hitting the parse cache of the previous run
+            for (int i = 0; i < WARMUP; i++) {
+                ParseCache.shared().clear();
+                solution.solve(star, file, new SolveContext(timeout, SolveContext.ProgressListener.NONE));
+            }
+
+            double[] millis = new double[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                ParseCache.shared().clear();
+                long start = System.nanoTime();
+                solution.solve(star, file, new SolveContext(timeout, SolveContext.ProgressListener.NONE));
+                millis[i] = (System.nanoTime() - start) / 1e6;
+            }
+
+            Arrays.sort(millis);
+            result.medianMillis = millis[ITERATIONS / 2];
+        } catch (CancellationException e) {
+            result.medianMillis = Double.POSITIVE_INFINITY;
+        }
+
+        RESULTS.add(result);
+
+        if (result.isRegression()) {
+            fail(String.format(Locale.ROOT, "Day %d star %d regressed: median %.1f ms, baseline %.1f ms, "
+                            + "budget %.1f ms (tolerance %.0f%% + %.1f ms)",
+                    day, star, result.medianMillis, baselineMillis, result.budgetMillis(),
+                    TOLERANCE * 100, SLACK_MILLIS));
+        }
+    }
+
+    private static Properties loadBaseline() {
+        try (InputStream in = PerformanceTest.class.getResourceAsStream(BASELINE)) {
+            Properties baseline = new Properties();
+            baseline.load(Objects.requireNonNull(in, BASELINE));
+            return baseline;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class Result {
+
+        private final int day;
+        private final int star;
+        private final double baselineMillis;
+        private double medianMillis;
+
+        public Result(int day, int star, double baselineMillis) {
+            this.day = day;
+            this.star = star;
+            this.baselineMillis = baselineMillis;
+        }
+
+        public double budgetMillis() {
+            return baselineMillis * (1 + TOLERANCE) + SLACK_MILLIS;
+        }
+
+        public boolean isRegression() {
+            return medianMillis > budgetMillis();
+        }
+
+        public String getStatus() {
+            if (Double.isInfinite(medianMillis)) {
+                return "TIMEOUT";
+            }
+
+            return isRegression()
+                    ? String.format(Locale.ROOT, "REGRESSED (%+.0f%%)", (medianMillis / baselineMillis - 1) * 100)
+                    : "OK";
+        }
+    }
+}
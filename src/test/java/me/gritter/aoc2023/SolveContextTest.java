@@ -0,0 +1,50 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SolveContextTest {
+
+    @Test
+    public void shouldThrowWhenCancelled() {
+        SolveContext context = new SolveContext();
+        context.checkpoint();
+
+        context.cancel();
+
+        assertTrue(context.isCancelled());
+        assertThrows(CancellationException.class, context::checkpoint);
+    }
+
+    @Test
+    public void shouldThrowPastDeadline() {
+        SolveContext context = new SolveContext(Duration.ZERO, SolveContext.ProgressListener.NONE);
+
+        assertTrue(context.isExpired());
+        assertThrows(CancellationException.class, context::checkpoint);
+    }
+
+    @Test
+    public void shouldReportProgress() {
+        List<Long> progress = new ArrayList<>();
+        SolveContext context = new SolveContext(null, (done, total) -> progress.add(done));
+
+        assertEquals(21, new Day12().solve(1, "day12-sample.txt", context));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), progress);
+    }
+
+    @Test
+    public void shouldStopLongRunningSolve() {
+        SolveContext context = new SolveContext(Duration.ofMillis(100), SolveContext.ProgressListener.NONE);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThrows(CancellationException.class, () -> new Day5().solve(2, "day5-puzzle.txt", context));
+        });
+    }
+}
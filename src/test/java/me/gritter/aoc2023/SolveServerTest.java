@@ -0,0 +1,91 @@
+package me.gritter.aoc2023;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolveServerTest {
+
+    @Test
+    public void shouldStreamResults() throws Exception {
+        try (SolveServer server = start(new SolveServer(0, 2, null, null))) {
+            List<String> responses = request(server,
+                    "1 1 day1-sample.txt\n2 2 day2-sample.txt\n26 1 day26-sample.txt\n");
+
+            assertEquals(3, responses.size());
+            assertTrue(responses.stream().anyMatch(r -> r.startsWith("1 1 day1-sample.txt ") && r.endsWith(" 142")));
+            assertTrue(responses.stream().anyMatch(r -> r.startsWith("2 2 day2-sample.txt ") && r.endsWith(" 2286")));
+            assertTrue(responses.contains("ERROR NO_SOLUTION"));
+        }
+    }
+
+    @Test
+    public void shouldOnlySolveInputsOfTheInputDir() throws Exception {
+        Path inputDir = Files.createTempDirectory("inputs-");
+        Path sample = inputDir.resolve("day1-copy.txt");
+        Path invalid = inputDir.resolve("day1-invalid.txt");
+        Path secret = Files.createTempFile("secret-", ".txt");
+        try {
+            Files.writeString(sample, Utils.readFile("day1-sample.txt"));
+            Files.writeString(invalid, "secret\n");
+            Files.writeString(secret, "secret\n");
+
+            try (SolveServer server = start(new SolveServer(0, 1, null, inputDir))) {
+                assertTrue(request(server, "1 1 day1-copy.txt\n").get(0).endsWith(" 142"));
+                assertEquals(List.of("ERROR SOLVE_FAILED"), request(server, "1 1 day1-invalid.txt\n"));
+                assertEquals(List.of("ERROR INPUT_NOT_ALLOWED"), request(server, "1 1 " + secret + "\n"));
+                assertEquals(List.of("ERROR INPUT_NOT_ALLOWED"),
+                        request(server, "1 1 ../" + secret.getFileName() + "\n"));
+                assertEquals(List.of("ERROR INPUT_NOT_ALLOWED"), request(server, "1 1 -\n"));
+                assertEquals(List.of("ERROR BAD_REQUEST"), request(server, "1 day1-copy.txt\n"));
+            }
+        } finally {
+            Files.delete(sample);
+            Files.delete(invalid);
+            Files.delete(inputDir);
+            Files.delete(secret);
+        }
+    }
+
+    private static SolveServer start(SolveServer server) {
+        Thread serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        return server;
+    }
+
+    private static List<String> request(SolveServer server, String requests) throws IOException {
+        List<String> responses = new ArrayList<>();
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), UTF_8);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8))) {
+            out.write(requests);
+            out.flush();
+            socket.shutdownOutput();
+
+            String line;
+            while ((line = in.readLine()) != null) {
+                responses.add(line);
+            }
+        }
+
+        return responses;
+    }
+}
@@ -0,0 +1,39 @@
+package me.gritter.aoc2023.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoordinatesTest {
+
+    @Test
+    public void shouldRoundTripCoordinatesAndState() {
+        int[] values = {0, 1, -1, 12345, -12345, Coordinates.MIN_COORDINATE, Coordinates.MAX_COORDINATE};
+        for (int x : values) {
+            for (int y : values) {
+                long packed = Coordinates.pack(x, y, 3);
+
+                assertEquals(x, Coordinates.x(packed));
+                assertEquals(y, Coordinates.y(packed));
+                assertEquals(3, Coordinates.state(packed));
+                assertEquals(Coordinates.pack(x, y), Coordinates.position(packed));
+            }
+        }
+    }
+
+    @Test
+    public void shouldTranslateKeepingState() {
+        long packed = Coordinates.translate(Coordinates.pack(2, 0, 7), -3, 4);
+
+        assertEquals(Coordinates.pack(-1, 4, 7), packed);
+        assertEquals(Coordinates.pack(-1, 4, 1), Coordinates.withState(packed, 1));
+        assertEquals("(-1, 4, 7)", Coordinates.toString(packed));
+    }
+
+    @Test
+    public void shouldRejectValuesOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> Coordinates.pack(Coordinates.MAX_COORDINATE + 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Coordinates.pack(0, Coordinates.MIN_COORDINATE - 1));
+        assertThrows(IllegalArgumentException.class, () -> Coordinates.pack(0, 0, Coordinates.MAX_STATE + 1));
+    }
+}
@@ -0,0 +1,63 @@
+package me.gritter.aoc2023.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArrayDequeTest {
+
+    @Test
+    public void shouldMatchJdkDeque() {
+        IntArrayDeque deque = new IntArrayDeque(2);
+        ArrayDeque<Integer> expected = new ArrayDeque<>();
+
+        Random random = new Random(2023);
+        for (int i = 0; i < 10_000; i++) {
+            switch (expected.isEmpty() ? random.nextInt(2) : random.nextInt(4)) {
+                case 0:
+                    deque.addFirst(i);
+                    expected.addFirst(i);
+                    break;
+                case 1:
+                    deque.addLast(i);
+                    expected.addLast(i);
+                    break;
+                case 2:
+                    assertEquals((int) expected.pollFirst(), deque.pollFirst());
+                    break;
+                default:
+                    assertEquals((int) expected.pollLast(), deque.pollLast());
+                    break;
+            }
+
+            assertEquals(expected.size(), deque.size());
+        }
+
+        assertArrayEquals(expected.stream().mapToInt(Integer::intValue).toArray(), deque.toArray());
+    }
+
+    @Test
+    public void shouldGetAndSetFromHead() {
+        IntArrayDeque deque = new IntArrayDeque();
+        deque.addLast(1);
+        deque.addLast(2);
+        deque.addFirst(0);
+        deque.set(2, 5);
+
+        assertEquals(0, deque.get(0));
+        assertEquals(5, deque.get(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> deque.get(3));
+    }
+
+    @Test
+    public void emptyDequeShouldThrow() {
+        IntArrayDeque deque = new IntArrayDeque();
+
+        assertThrows(NoSuchElementException.class, deque::pollFirst);
+        assertThrows(NoSuchElementException.class, deque::peekLast);
+    }
+}
@@ -0,0 +1,53 @@
+package me.gritter.aoc2023.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntArrayListTest {
+
+    @Test
+    public void shouldGrowWhenAdding() {
+        IntArrayList list = new IntArrayList(1);
+        for (int i = 0; i < 1000; i++) {
+            list.add(i * 3);
+        }
+
+        assertEquals(1000, list.size());
+        assertEquals(2997, list.get(999));
+        assertEquals(1000, list.toArray().length);
+        assertEquals(3 * 999 * 1000 / 2, list.stream().sum());
+    }
+
+    @Test
+    public void shouldSetAndRemoveLast() {
+        IntArrayList list = IntArrayList.of(1, 2, 3);
+        list.set(0, 7);
+
+        assertEquals(3, list.removeLast());
+        assertEquals(IntArrayList.of(7, 2), list);
+        assertEquals("[7, 2]", list.toString());
+    }
+
+    @Test
+    public void shouldCheckBounds() {
+        IntArrayList list = IntArrayList.of(1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, 0));
+
+        list.clear();
+        assertThrows(IllegalStateException.class, list::removeLast);
+    }
+
+    @Test
+    public void longListShouldHoldLongValues() {
+        LongArrayList list = new LongArrayList(1);
+        list.add(Long.MAX_VALUE);
+        list.add(Long.MIN_VALUE);
+
+        assertEquals(Long.MIN_VALUE, list.removeLast());
+        assertEquals(Long.MAX_VALUE, list.get(0));
+        assertEquals(LongArrayList.of(Long.MAX_VALUE), list);
+    }
+}
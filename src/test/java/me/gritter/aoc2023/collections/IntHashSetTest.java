@@ -0,0 +1,48 @@
+package me.gritter.aoc2023.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntHashSetTest {
+
+    @Test
+    public void shouldMatchJdkSet() {
+        IntHashSet set = new IntHashSet(4);
+        Set<Integer> expected = new HashSet<>();
+
+        Random random = new Random(2023);
+        for (int i = 0; i < 100_000; i++) {
+            int value = random.nextInt(5000) - 100;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (int value = -100; value < 4900; value++) {
+            assertEquals(expected.contains(value), set.contains(value), String.valueOf(value));
+        }
+
+        Set<Integer> iterated = new HashSet<>();
+        set.forEach(iterated::add);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void shouldContainZero() {
+        IntHashSet set = new IntHashSet();
+
+        assertFalse(set.contains(0));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.contains(0));
+        assertArrayEquals(new int[]{0}, set.toArray());
+    }
+}
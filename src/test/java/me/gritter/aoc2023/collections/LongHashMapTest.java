@@ -0,0 +1,52 @@
+package me.gritter.aoc2023.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashMapTest {
+
+    @Test
+    public void shouldMatchJdkMap() {
+        LongHashMap map = new LongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+
+        Random random = new Random(2023);
+        for (int i = 0; i < 100_000; i++) {
+            long key = random.nextInt(10_000) - 100;
+            long value = random.nextLong();
+            map.put(key, value);
+            expected.put(key, value);
+        }
+
+        assertEquals(expected.size(), map.size());
+        expected.forEach((key, value) -> assertEquals((long) value, map.get(key, -1)));
+        assertFalse(map.containsKey(10_000));
+        assertEquals(-1, map.get(10_000, -1));
+
+        Map<Long, Long> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertEquals(expected, iterated);
+    }
+
+    @Test
+    public void shouldStoreZeroKey() {
+        LongHashMap map = new LongHashMap();
+        map.put(0, 5);
+        map.put(-3, 1);
+
+        assertTrue(map.containsKey(0));
+        assertEquals(5, map.get(0, -1));
+        assertEquals(7, map.addTo(0, 2));
+        assertEquals(3, map.addTo(1, 3));
+        assertArrayEquals(new long[]{-3, 0, 1}, map.sortedKeys());
+
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(0));
+    }
+}
@@ -0,0 +1,81 @@
+package me.gritter.aoc2023.collections;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LongHashSetTest {
+
+    @Test
+    public void shouldAddAndContainValues() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(0));
+        assertTrue(set.add(42));
+        assertTrue(set.add(-42));
+        assertFalse(set.add(42));
+        assertFalse(set.add(0));
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-42));
+        assertFalse(set.contains(7));
+    }
+
+    @Test
+    public void shouldMatchJdkSet() {
+        LongHashSet set = new LongHashSet(4);
+        Set<Long> expected = new HashSet<>();
+
+        Random random = new Random(2023);
+        for (int i = 0; i < 100_000; i++) {
+            // Small range, so adds and removes hit existing values
+            long value = random.nextInt(5000) - 100;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        for (long value = -100; value < 4900; value++) {
+            assertEquals(expected.contains(value), set.contains(value), String.valueOf(value));
+        }
+
+        Set<Long> iterated = new HashSet<>();
+        set.forEach(iterated::add);
+        assertEquals(expected, iterated);
+        assertEquals(expected.size(), set.toArray().length);
+    }
+
+    @Test
+    public void shouldHoldPackedCoordinates() {
+        LongHashSet set = new LongHashSet();
+        for (int y = -50; y < 50; y++) {
+            for (int x = -50; x < 50; x++) {
+                set.add(Coordinates.pack(x, y));
+            }
+        }
+
+        assertEquals(10_000, set.size());
+        assertTrue(set.contains(Coordinates.pack(-50, 49)));
+        assertFalse(set.contains(Coordinates.pack(50, 0)));
+    }
+
+    @Test
+    public void clearShouldRemoveAllValues() {
+        LongHashSet set = new LongHashSet();
+        set.add(0);
+        set.add(1);
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(1));
+    }
+}
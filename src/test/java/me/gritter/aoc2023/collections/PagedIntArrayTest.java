@@ -0,0 +1,30 @@
+package me.gritter.aoc2023.collections;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PagedIntArrayTest {
+
+    @Test
+    public void shouldOnlyAllocateWrittenPages() {
+        PagedIntArray array = new PagedIntArray(1_000_000, -1);
+        array.set(3, 7);
+        array.set(999_999, 9);
+
+        assertEquals(7, array.get(3));
+        assertEquals(9, array.get(999_999));
+        assertEquals(-1, array.get(4));
+        assertEquals(-1, array.get(500_000));
+        assertEquals(2 * 4096, array.allocatedLength());
+    }
+
+    @Test
+    public void shouldCheckBounds() {
+        PagedIntArray array = new PagedIntArray(10, 0);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> array.get(10));
+        assertThrows(IndexOutOfBoundsException.class, () -> array.set(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PagedIntArray(-1, 0));
+    }
+}
@@ -0,0 +1,59 @@
+package me.gritter.aoc2023.generator;
+
+import me.gritter.aoc2023.Solution;
+import me.gritter.aoc2023.Solutions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+public class GeneratorsTest {
+
+    private static final int SIZE = 20;
+
+    @TestFactory
+    public Stream<DynamicTest> shouldGenerateSolvableInputs() {
+        return Generators.all().keySet().stream()
+                .map(day -> dynamicTest("day " + day, () -> {
+                    Path file = Files.createTempFile("day" + day + "-", ".txt");
+                    try {
+                        Generators.generate(day, SIZE, Generators.DEFAULT_SEED, file);
+
+                        Solution solution = Solutions.byDay(day);
+                        assertDoesNotThrow(() -> solution.solution_star1(file.toString()));
+                        assertDoesNotThrow(() -> solution.solution_star2(file.toString()));
+                    } finally {
+                        Files.delete(file);
+                    }
+                }));
+    }
+
+    @Test
+    public void shouldBeReproducible() throws IOException {
+        Path first = Files.createTempFile("first-", ".txt");
+        Path second = Files.createTempFile("second-", ".txt");
+        try {
+            Generators.generate(5, SIZE, 42, first);
+            Generators.generate(5, SIZE, 42, second);
+
+            assertArrayEquals(Files.readAllBytes(first), Files.readAllBytes(second));
+        } finally {
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    public void shouldRejectUnknownDays() {
+        assertThrows(IllegalArgumentException.class, () -> Generators.byDay(25));
+    }
+}
@@ -0,0 +1,100 @@
+package me.gritter.aoc2023.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GraphSearchTest {
+
+    /**
+     * Weighted 4-connected grid, entering a cell costs its weight.
+     */
+    private static IntGraph grid(int[][] weights) {
+        int height = weights.length;
+        int width = weights[0].length;
+
+        return new IntGraph() {
+            @Override
+            public int stateCount() {
+                return width * height;
+            }
+
+            @Override
+            public void forEachEdge(int state, EdgeConsumer consumer) {
+                int x = state % width;
+                int y = state / width;
+                if (x > 0) consumer.accept(state - 1, weights[y][x - 1]);
+                if (x < width - 1) consumer.accept(state + 1, weights[y][x + 1]);
+                if (y > 0) consumer.accept(state - width, weights[y - 1][x]);
+                if (y < height - 1) consumer.accept(state + width, weights[y + 1][x]);
+            }
+        };
+    }
+
+    @Test
+    public void breadthFirstShouldVisitReachableStates() {
+        int[][] weights = new int[3][4];
+        GraphSearch.Traversal traversal = GraphSearch.breadthFirst(grid(weights), 0);
+
+        assertEquals(12, traversal.getVisitedCount());
+        assertEquals(5, traversal.getDepth());
+    }
+
+    @Test
+    public void breadthFirstShouldStartFromAllStarts() {
+        int[][] weights = new int[1][7];
+        GraphSearch.Traversal traversal = GraphSearch.breadthFirst(grid(weights), 0, 6);
+
+        assertEquals(7, traversal.getVisitedCount());
+        assertEquals(3, traversal.getDepth());
+    }
+
+    @Test
+    public void dijkstraShouldFindCheapestPath() {
+        int[][] weights = {
+                {1, 9, 1, 1},
+                {1, 9, 1, 9},
+                {1, 1, 1, 9},
+        };
+
+        GraphSearch.ShortestPath path = GraphSearch.dijkstra(grid(weights), 0, state -> state == 3);
+
+        assertTrue(path.isFound());
+        assertEquals(3, path.getGoal());
+        assertEquals(7, path.getCost());
+    }
+
+    @Test
+    public void dijkstraShouldReportUnreachableGoal() {
+        int[][] weights = new int[2][2];
+
+        GraphSearch.ShortestPath path = GraphSearch.dijkstra(grid(weights), 0, state -> false);
+
+        assertFalse(path.isFound());
+        assertEquals(Integer.MAX_VALUE, path.getCost());
+        assertEquals(4, path.getSettledCount());
+    }
+
+    @Test
+    public void aStarShouldMatchDijkstra() {
+        Random random = new Random(17);
+        int size = 60;
+        int[][] weights = new int[size][size];
+        for (int[] row : weights) {
+            for (int x = 0; x < size; x++) {
+                row[x] = 1 + random.nextInt(9);
+            }
+        }
+
+        IntGraph graph = grid(weights);
+        int goal = size * size - 1;
+        GraphSearch.ShortestPath dijkstra = GraphSearch.dijkstra(graph, 0, state -> state == goal);
+        GraphSearch.ShortestPath aStar = GraphSearch.aStar(graph, 0, state -> state == goal,
+                state -> (size - 1 - state % size) + (size - 1 - state / size), new BucketQueue(10));
+
+        assertEquals(dijkstra.getCost(), aStar.getCost());
+        assertTrue(aStar.getSettledCount() <= dijkstra.getSettledCount());
+    }
+}
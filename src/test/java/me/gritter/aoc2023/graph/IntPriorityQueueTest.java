@@ -0,0 +1,69 @@
+package me.gritter.aoc2023.graph;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntPriorityQueueTest {
+
+    @Test
+    public void binaryHeapShouldPollInPriorityOrder() {
+        IntBinaryHeap heap = new IntBinaryHeap(1);
+        // Equal priorities are polled by value
+        PriorityQueue<long[]> expected = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        Random random = new Random(2023);
+        for (int i = 0; i < 10_000; i++) {
+            if (heap.isEmpty() || random.nextInt(3) != 0) {
+                int priority = random.nextInt(1000) - 500;
+                heap.add(i, priority);
+                expected.add(new long[]{priority, i});
+            } else {
+                assertEquals(expected.peek()[0], heap.peekPriority());
+                assertEquals(expected.poll()[1], heap.poll());
+            }
+
+            assertEquals(expected.size(), heap.size());
+        }
+    }
+
+    @Test
+    public void bucketQueueShouldPollInPriorityOrder() {
+        BucketQueue queue = new BucketQueue(9);
+        queue.add(1, 5);
+        queue.add(2, 14);
+        queue.add(3, 7);
+
+        assertEquals(5, queue.peekPriority());
+        assertEquals(1, queue.poll());
+
+        // Priorities between the last polled priority and the queued priorities are allowed
+        queue.add(4, 6);
+        assertEquals(4, queue.poll());
+        assertEquals(3, queue.poll());
+        assertEquals(14, queue.peekPriority());
+        assertEquals(2, queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void bucketQueueShouldRejectPrioritiesOutsideOfItsSpan() {
+        BucketQueue queue = new BucketQueue(9);
+        queue.add(1, 10);
+        queue.poll();
+        queue.add(2, 12);
+
+        assertThrows(IllegalArgumentException.class, () -> queue.add(3, 9));
+        assertThrows(IllegalArgumentException.class, () -> queue.add(3, 100));
+    }
+
+    @Test
+    public void emptyQueuesShouldThrow() {
+        assertThrows(NoSuchElementException.class, () -> new IntBinaryHeap().poll());
+        assertThrows(NoSuchElementException.class, () -> new BucketQueue(1).peekPriority());
+    }
+}